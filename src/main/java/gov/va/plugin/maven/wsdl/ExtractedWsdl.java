@@ -0,0 +1,14 @@
+package gov.va.plugin.maven.wsdl;
+
+import lombok.Value;
+
+/** The artifacts extracted from a single parse of a wsdl. */
+@Value
+public class ExtractedWsdl {
+
+  /** String representation of the embedded schema. */
+  String schema;
+
+  /** Index of the operations of the wsdl, or <code>null</code> if not collected. */
+  WsdlOperationsIndex operationsIndex;
+}
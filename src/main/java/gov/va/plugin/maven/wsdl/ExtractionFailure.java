@@ -0,0 +1,83 @@
+package gov.va.plugin.maven.wsdl;
+
+import java.net.URL;
+import lombok.Value;
+
+/** A failure to extract the schema of a single WSDL, with the source location when known. */
+@Value
+class ExtractionFailure {
+
+  /** Location of the WSDL. */
+  String wsdl;
+
+  /** Line of the WSDL at which the failure occurred, or <code>-1</code> if unknown. */
+  int lineNumber;
+
+  /** Column of the WSDL at which the failure occurred, or <code>-1</code> if unknown. */
+  int columnNumber;
+
+  /** Description of the failure. */
+  String message;
+
+  /**
+   * Describe the failure of a WSDL, using the location of a parse failure found in the cause chain.
+   *
+   * @param url The url of the wsdl.
+   * @param failure The failure.
+   * @return ExtractionFailure.
+   */
+  static ExtractionFailure of(final URL url, final Throwable failure) {
+    return of(url.toString(), failure);
+  }
+
+  /**
+   * Describe the failure of a WSDL, using the location of a parse failure found in the cause chain.
+   *
+   * @param wsdl Location of the wsdl, such as a configured file name when it could not be resolved.
+   * @param failure The failure.
+   * @return ExtractionFailure.
+   */
+  static ExtractionFailure of(final String wsdl, final Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof WsdlUtilities.WsdlParseFailedException) {
+        final WsdlUtilities.WsdlParseFailedException parseFailure =
+            (WsdlUtilities.WsdlParseFailedException) cause;
+        return new ExtractionFailure(
+            wsdl,
+            parseFailure.lineNumber(),
+            parseFailure.columnNumber(),
+            parseFailure.reason());
+      }
+    }
+    return new ExtractionFailure(wsdl, -1, -1, failure.getMessage());
+  }
+
+  /**
+   * Get the failure in the conventional <code>file:line:column: message</code> form.
+   *
+   * @return Diagnostic string.
+   */
+  String diagnostic() {
+    if (lineNumber < 0) {
+      return wsdl + ": " + message;
+    }
+    return wsdl + ":" + lineNumber + ":" + columnNumber + ": " + message;
+  }
+
+  /**
+   * Get the JSON representation of this failure.
+   *
+   * @return JSON object.
+   */
+  String toJson() {
+    return "{\"wsdl\": "
+        + Json.quote(wsdl)
+        + ", \"line\": "
+        + lineNumber
+        + ", \"column\": "
+        + columnNumber
+        + ", \"message\": "
+        + Json.quote(message)
+        + "}";
+  }
+}
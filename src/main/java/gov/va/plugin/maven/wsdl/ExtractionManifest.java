@@ -0,0 +1,161 @@
+package gov.va.plugin.maven.wsdl;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.Value;
+
+/**
+ * Describes every schema extracted in an execution so downstream consumers can find what changed
+ * without rescanning and rehashing the destination directory.
+ */
+final class ExtractionManifest {
+
+  /** Entries keyed by the index of their wsdl, so they are listed in wsdl order. */
+  private final SortedMap<Integer, Entry> entries = new TreeMap<>();
+
+  /** The entry that first described the content of each schema file. */
+  private final Map<String, Entry> entryByContentFile = new HashMap<>();
+
+  /**
+   * Record a schema whose content was written to its own file.
+   *
+   * @param index Index of the wsdl in the list of wsdls.
+   * @param wsdl Location of the wsdl.
+   * @param origin Where the wsdl was configured.
+   * @param schemaFile Name of the schema file within the destination directory.
+   * @param content Content of the schema file.
+   * @param changed True if the schema file was created or modified in this execution.
+   */
+  void add(
+      final int index,
+      final String wsdl,
+      final Origin origin,
+      final String schemaFile,
+      final byte[] content,
+      final boolean changed) {
+    final Entry entry =
+        new Entry(
+            wsdl,
+            origin,
+            schemaFile,
+            content.length,
+            SchemaDeduplicator.sha256Hex(content),
+            changed);
+    entries.put(index, entry);
+    entryByContentFile.put(schemaFile, entry);
+  }
+
+  /**
+   * Record a schema whose content is held by a schema file recorded earlier.
+   *
+   * @param index Index of the wsdl in the list of wsdls.
+   * @param wsdl Location of the wsdl.
+   * @param origin Where the wsdl was configured.
+   * @param schemaFile Name of the schema file (or link) for this wsdl.
+   * @param contentFile Name of the schema file holding the content.
+   * @param content Content of this wsdl's schema, described if the content file was not recorded.
+   * @param changed True if the schema file for this wsdl was created or modified.
+   */
+  void addDuplicate(
+      final int index,
+      final String wsdl,
+      final Origin origin,
+      final String schemaFile,
+      final String contentFile,
+      final byte[] content,
+      final boolean changed) {
+    final Entry shared = entryByContentFile.get(contentFile);
+    if (shared == null) {
+      entries.put(
+          index,
+          new Entry(
+              wsdl,
+              origin,
+              schemaFile,
+              content.length,
+              SchemaDeduplicator.sha256Hex(content),
+              changed));
+      return;
+    }
+    entries.put(
+        index,
+        new Entry(
+            wsdl, origin, schemaFile, shared.size(), shared.sha256(), changed || shared.changed()));
+  }
+
+  /**
+   * Get the JSON representation of the manifest.
+   *
+   * @param sourceDestDir Directory schema file names are relative to.
+   * @return JSON document.
+   */
+  String toJson(final File sourceDestDir) {
+    final StringBuilder json = new StringBuilder();
+    json.append("{\n  \"sourceDestDir\": ").append(Json.quote(sourceDestDir.getAbsolutePath()));
+    json.append(",\n  \"schemas\": ");
+    json.append(
+        Json.array(entries.values().stream().map(Entry::toJson).collect(Collectors.toList())));
+    return json.append("\n}\n").toString();
+  }
+
+  /** Where a wsdl was configured: a directory and file, or a dependency and resource. */
+  @Value
+  static class Origin {
+
+    /** Either <code>directory</code> or <code>dependency</code>. */
+    String type;
+
+    /** The directory path or <code>groupId:artifactId</code> of the dependency. */
+    String location;
+
+    /** The file name within the directory or the resource within the dependency. */
+    String entry;
+
+    String toJson() {
+      return "{\"type\": "
+          + Json.quote(type)
+          + ", \"location\": "
+          + Json.quote(location)
+          + ", \"entry\": "
+          + Json.quote(entry)
+          + "}";
+    }
+  }
+
+  /** A single extracted schema. */
+  @Value
+  static class Entry {
+
+    String wsdl;
+
+    Origin origin;
+
+    String schemaFile;
+
+    long size;
+
+    String sha256;
+
+    boolean changed;
+
+    String toJson() {
+      return "{\"wsdl\": "
+          + Json.quote(wsdl)
+          + ", \"origin\": "
+          + origin.toJson()
+          + ", \"schema\": "
+          + Json.quote(schemaFile)
+          + ", \"size\": "
+          + size
+          + ", \"sha256\": "
+          + Json.quote(sha256)
+          + ", \"changed\": "
+          + changed
+          + "}";
+    }
+  }
+}
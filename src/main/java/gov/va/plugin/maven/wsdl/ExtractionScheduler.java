@@ -0,0 +1,159 @@
+package gov.va.plugin.maven.wsdl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Schedules wsdls to be extracted concurrently within a {@link MemoryBudget}. Wsdls are admitted
+ * largest estimated cost first, so the longest running wsdls do not start last, and only while
+ * their cost fits alongside that of results not yet written. The next wsdl in that order is
+ * admitted before any smaller one, so a large wsdl is never starved by a stream of small ones.
+ *
+ * <p>Results are handed out to be written as they complete or, when the order schemas are written
+ * in matters, in wsdl order. In wsdl order a result waiting on a wsdl not yet admitted could never
+ * be written, so the next wsdl to write is then admitted without reserving its cost.
+ */
+final class ExtractionScheduler {
+
+  private final ExecutorService executor;
+
+  private final CompletionService<ExtractedWsdl> completion;
+
+  private final IntFunction<Callable<ExtractedWsdl>> extraction;
+
+  private final long[] costs;
+
+  private final MemoryBudget budget;
+
+  private final boolean inWsdlOrder;
+
+  /** Index of each wsdl not yet admitted, largest cost first. */
+  private final Deque<Integer> pending = new ArrayDeque<>();
+
+  /** Pending result of each admitted wsdl, by index, until handed out. */
+  private final List<Future<ExtractedWsdl>> results;
+
+  /** Index of the wsdl of each result submitted to be handed out as it completes. */
+  private final Map<Future<ExtractedWsdl>, Integer> indexByResult = new HashMap<>();
+
+  /** Whether the cost of each wsdl was reserved when it was admitted. */
+  private final boolean[] reserved;
+
+  /** Index of the next wsdl handed out when results are handed out in wsdl order. */
+  private int next;
+
+  /**
+   * Create a scheduler.
+   *
+   * @param executor Executor extracting the wsdls.
+   * @param costs Estimated heap bytes used by the extraction and result of each wsdl.
+   * @param budget Budget the costs of admitted wsdls are reserved from.
+   * @param inWsdlOrder True to hand out results in wsdl order rather than as they complete.
+   * @param extraction Extraction of the wsdl at an index.
+   */
+  ExtractionScheduler(
+      final ExecutorService executor,
+      final long[] costs,
+      final MemoryBudget budget,
+      final boolean inWsdlOrder,
+      final IntFunction<Callable<ExtractedWsdl>> extraction) {
+    this.executor = executor;
+    this.completion = new ExecutorCompletionService<>(executor);
+    this.extraction = extraction;
+    this.costs = costs;
+    this.budget = budget;
+    this.inWsdlOrder = inWsdlOrder;
+    this.results = new ArrayList<>(Collections.nCopies(costs.length, null));
+    this.reserved = new boolean[costs.length];
+    IntStream.range(0, costs.length)
+        .boxed()
+        .sorted(Comparator.comparingLong((Integer i) -> costs[i]).reversed())
+        .forEach(pending::add);
+  }
+
+  /**
+   * Admit every wsdl that fits within the budget, then get the wsdl whose result is to be written
+   * next. Once the result has been written {@link #written} must be called.
+   *
+   * @return Index of the wsdl.
+   * @throws MojoExecutionException Exception if interrupted while waiting for a result.
+   */
+  int next() throws MojoExecutionException {
+    while (!pending.isEmpty() && budget.tryReserve(costs[pending.peekFirst()])) {
+      admit(pending.pollFirst(), true);
+    }
+    if (inWsdlOrder) {
+      final int index = next++;
+      if (pending.remove(Integer.valueOf(index))) {
+        admit(index, false);
+      }
+      return index;
+    }
+    try {
+      return indexByResult.remove(completion.take());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted while parsing WSDL.", e);
+    }
+  }
+
+  /**
+   * Wait for the result of a wsdl returned by {@link #next}.
+   *
+   * @param index Index of the wsdl.
+   * @return The schema and operations index.
+   * @throws MojoExecutionException Exception if the schema could not be obtained.
+   */
+  ExtractedWsdl result(final int index) throws MojoExecutionException {
+    final Future<ExtractedWsdl> result = results.set(index, null);
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted while parsing WSDL.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof MojoExecutionException) {
+        throw (MojoExecutionException) e.getCause();
+      }
+      throw new MojoExecutionException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  /**
+   * Release the cost of a wsdl once its result has been written or has failed.
+   *
+   * @param index Index of the wsdl.
+   */
+  void written(final int index) {
+    if (reserved[index]) {
+      reserved[index] = false;
+      budget.release(costs[index]);
+    }
+  }
+
+  private void admit(final int index, final boolean reserve) {
+    reserved[index] = reserve;
+    if (inWsdlOrder) {
+      results.set(index, executor.submit(extraction.apply(index)));
+    } else {
+      final Future<ExtractedWsdl> result = completion.submit(extraction.apply(index));
+      results.set(index, result);
+      indexByResult.put(result, index);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package gov.va.plugin.maven.wsdl;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Minimal helpers for writing the JSON reports produced by this plugin without pulling a JSON
+ * library into the Maven build classpath.
+ */
+final class Json {
+
+  private Json() {}
+
+  /**
+   * Get a JSON string literal for a value.
+   *
+   * @param value The value, may be <code>null</code>.
+   * @return Quoted and escaped string, or <code>null</code>.
+   */
+  static String quote(final String value) {
+    if (value == null) {
+      return "null";
+    }
+    final StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          quoted.append("\\\"");
+          break;
+        case '\\':
+          quoted.append("\\\\");
+          break;
+        case '\n':
+          quoted.append("\\n");
+          break;
+        case '\r':
+          quoted.append("\\r");
+          break;
+        case '\t':
+          quoted.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            quoted.append(String.format("\\u%04x", (int) c));
+          } else {
+            quoted.append(c);
+          }
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+  /**
+   * Get a JSON array of values for a member of a top level object, each value on its own line.
+   *
+   * @param values JSON values.
+   * @return Array.
+   */
+  static String array(final List<String> values) {
+    if (values.isEmpty()) {
+      return "[]";
+    }
+    return values.stream().collect(Collectors.joining(",\n    ", "[\n    ", "\n  ]"));
+  }
+}
@@ -0,0 +1,58 @@
+package gov.va.plugin.maven.wsdl;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * A weighted semaphore over an estimated number of heap bytes. Work is admitted only while the sum
+ * of the estimated cost of admitted work fits within the budget. Work estimated to cost more than
+ * the whole budget is admitted once nothing else is.
+ *
+ * <p>Permits are kilobytes so budgets larger than <code>Integer.MAX_VALUE</code> bytes can be
+ * represented.
+ */
+final class MemoryBudget {
+
+  private static final int BYTES_PER_PERMIT = 1024;
+
+  private final int capacity;
+
+  private final Semaphore permits;
+
+  /**
+   * Create a budget.
+   *
+   * @param bytes Number of heap bytes that may be used by admitted work.
+   */
+  MemoryBudget(final long bytes) {
+    capacity = toPermits(bytes);
+    permits = new Semaphore(capacity);
+  }
+
+  private static int toPermits(final long bytes) {
+    return (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes / BYTES_PER_PERMIT));
+  }
+
+  private int cost(final long bytes) {
+    return Math.min(capacity, toPermits(bytes));
+  }
+
+  /**
+   * Reserve the estimated cost of work if it is available within the budget.
+   *
+   * @param bytes Estimated heap bytes used by the work.
+   * @return True if reserved, in which case {@link #release} must be called once the memory used
+   *     by the work is no longer held.
+   */
+  boolean tryReserve(final long bytes) {
+    return permits.tryAcquire(cost(bytes));
+  }
+
+  /**
+   * Release the estimated cost of work reserved earlier.
+   *
+   * @param bytes Estimated heap bytes used by the work, as reserved.
+   */
+  void release(final long bytes) {
+    permits.release(cost(bytes));
+  }
+}
@@ -0,0 +1,119 @@
+package gov.va.plugin.maven.wsdl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * Tracks extracted schemas by content so that a schema embedded byte-for-byte in several WSDLs is
+ * only written once per execution.
+ *
+ * <p>Schemas are compared after a light canonicalization: line endings are normalized and trailing
+ * whitespace is removed from each line. The content written is always the first occurrence.
+ */
+final class SchemaDeduplicator {
+
+  /** Digest algorithm used to identify schema content. */
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  /** Schema file name of the first occurrence of each distinct schema, keyed by digest. */
+  private final Map<String, String> schemaFileByDigest = new HashMap<>();
+
+  /** Schema file holding the content for each WSDL, in the order WSDLs were registered. */
+  @Getter private final Map<String, String> schemaFileByWsdl = new LinkedHashMap<>();
+
+  /** Number of schemas found to be duplicates of an earlier schema. */
+  @Getter private int duplicates;
+
+  /** Number of bytes not written because the schema was a duplicate. */
+  @Getter private long bytesSaved;
+
+  /**
+   * Get the hex encoded SHA-256 digest of the given bytes.
+   *
+   * @param bytes The bytes to digest.
+   * @return Lower case hex string.
+   */
+  static String sha256Hex(final byte[] bytes) {
+    try {
+      final byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(bytes);
+      final StringBuilder hex = new StringBuilder(digest.length * 2);
+      for (final byte b : digest) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (final NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Get the canonical form of a schema used for comparison.
+   *
+   * @param schema String representation of the schema.
+   * @return Schema with normalized line endings and no trailing whitespace.
+   */
+  static String canonicalize(final String schema) {
+    final StringBuilder canonical = new StringBuilder(schema.length());
+    for (final String line : schema.split("\r\n|\r|\n", -1)) {
+      int end = line.length();
+      while ((end > 0) && Character.isWhitespace(line.charAt(end - 1))) {
+        end--;
+      }
+      canonical.append(line, 0, end).append('\n');
+    }
+    return canonical.toString();
+  }
+
+  /**
+   * Get the digest identifying the content of a schema.
+   *
+   * @param schema String representation of the schema.
+   * @return Hex encoded SHA-256 of the canonical form of the schema.
+   */
+  static String digest(final String schema) {
+    return sha256Hex(canonicalize(schema).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Get the schema file already written with the same content.
+   *
+   * @param digest Digest of the schema.
+   * @return Name of the schema file, or <code>null</code> if no schema with this content has been
+   *     registered and the schema should be written.
+   */
+  String schemaFile(final String digest) {
+    return schemaFileByDigest.get(digest);
+  }
+
+  /**
+   * Register a schema once written to its own file.
+   *
+   * @param wsdlName Name of the WSDL the schema was extracted from.
+   * @param schemaFileName Name of the schema file written.
+   * @param digest Digest of the schema.
+   */
+  void registerSchema(final String wsdlName, final String schemaFileName, final String digest) {
+    schemaFileByDigest.put(digest, schemaFileName);
+    schemaFileByWsdl.put(wsdlName, schemaFileName);
+  }
+
+  /**
+   * Register a schema found to be a duplicate of a schema file already written.
+   *
+   * @param wsdlName Name of the WSDL the schema was extracted from.
+   * @param schemaFileName Name of the schema file holding the content.
+   * @param bytesNotWritten Number of bytes not written because of the duplicate.
+   */
+  void registerDuplicate(
+      final String wsdlName, final String schemaFileName, final long bytesNotWritten) {
+    schemaFileByWsdl.put(wsdlName, schemaFileName);
+    duplicates++;
+    bytesSaved += bytesNotWritten;
+  }
+}
@@ -3,15 +3,29 @@ package gov.va.plugin.maven.wsdl;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import lombok.NoArgsConstructor;
@@ -50,6 +64,18 @@ public class SchemaFromWsdlMojo extends AbstractMojo {
   /** Extension used for extracted schema files. */
   private static final String SCHEMA_FILE_EXTENSION = ".xsd";
 
+  /** Estimated heap bytes used per byte of WSDL parsed into a document. */
+  static final int DOCUMENT_BYTES_PER_WSDL_BYTE = 10;
+
+  /** Estimated heap bytes used per byte of WSDL when streaming, the schema held as a string. */
+  private static final int STREAMING_BYTES_PER_WSDL_BYTE = 3;
+
+  /** Suffix of a link to a shared schema file while it is created, before replacing the file. */
+  private static final String LINK_SUFFIX = ".link";
+
+  /** Name of the manifest mapping WSDLs to shared schema files when deduplicating. */
+  private static final String DEDUPLICATION_MANIFEST_NAME = "schema-dedup.properties";
+
   /** A class used to look up .wsdl documents from a given directory. */
   private static final FileFilter WSDL_FILE_FILTER = f -> f.getName().endsWith(".wsdl");
 
@@ -60,7 +86,7 @@ public class SchemaFromWsdlMojo extends AbstractMojo {
 
   /**
    * List of files to use for WSDLs. If not specified, all <code>.wsdl</code> files in the <code>
-   * wsdlDirectory</code> will be used.
+   * wsdlDirectory</code> will be used, in name order.
    */
   @Parameter @Setter private List<String> wsdlFiles;
 
@@ -80,6 +106,72 @@ public class SchemaFromWsdlMojo extends AbstractMojo {
   @Setter
   private File sourceDestDir;
 
+  /**
+   * Write each distinct schema only once when several WSDLs embed the same schema. A manifest named
+   * <code>schema-dedup.properties</code> mapping each WSDL to its schema file is written to <code>
+   * sourceDestDir</code>.
+   */
+  @Parameter(defaultValue = "false")
+  @Setter
+  private boolean deduplicateSchemas;
+
+  /**
+   * How a duplicate schema is represented when <code>deduplicateSchemas</code> is enabled. <code>
+   * MANIFEST</code> writes nothing for the duplicate, <code>LINK</code> creates a symbolic link to
+   * the shared schema file (falling back to a copy where links are not supported).
+   */
+  @Parameter(defaultValue = "MANIFEST")
+  @Setter
+  private DeduplicationMode deduplicationMode = DeduplicationMode.MANIFEST;
+
+  /**
+   * Fail on the first WSDL whose schema can not be extracted. When <code>false</code> every WSDL is
+   * processed, all failures are logged with their source location and written to <code>
+   * errorReportFile</code>, and the build then fails once.
+   */
+  @Parameter(defaultValue = "true")
+  @Setter
+  private boolean failFast = true;
+
+  /**
+   * Number of WSDLs to parse concurrently. Schemas are written as they are parsed, or in WSDL order
+   * when <code>deduplicateSchemas</code> is enabled. Manifests and reports still list WSDLs in
+   * order.
+   */
+  @Parameter(defaultValue = "1")
+  @Setter
+  private int threads = 1;
+
+  /**
+   * Estimated heap, in megabytes, available for parsing WSDLs. Concurrently parsed WSDLs are
+   * admitted, largest first, only while their estimated cost fits within the budget together with
+   * that of parsed schemas not yet written. A WSDL whose document alone would exceed the budget is
+   * extracted by streaming instead. When <code>0</code> half of the maximum heap is used to admit
+   * WSDLs and no WSDL is streamed.
+   */
+  @Parameter(defaultValue = "0")
+  @Setter
+  private long memoryBudgetMegabytes;
+
+  /**
+   * JSON manifest listing, for each WSDL, its origin and the schema file written along with the
+   * size, SHA-256 and whether the schema changed in this execution.
+   */
+  @Parameter(defaultValue = "${project.build.directory}/schema-from-wsdl/manifest.json")
+  @Setter
+  private File manifestFile;
+
+  /**
+   * Optional JSON index of the services, ports and operations of each WSDL, with the elements of
+   * each operation's input and output, collected from the same parse used to extract the schema.
+   */
+  @Parameter @Setter private File operationsIndexFile;
+
+  /** JSON report of extraction failures, written when <code>failFast</code> is disabled. */
+  @Parameter(defaultValue = "${project.build.directory}/schema-from-wsdl/errors.json")
+  @Setter
+  private File errorReportFile;
+
   /**
    * Execute the plugin.
    *
@@ -88,30 +180,280 @@ public class SchemaFromWsdlMojo extends AbstractMojo {
   @Override
   public void execute() throws MojoExecutionException {
 
+    final List<ExtractionFailure> failures = new ArrayList<>();
+    final List<String> wsdlResources = new ArrayList<>();
     List<URL> urlList;
     if (wsdlDependency != null) {
-      urlList = getWsdlFromClasspathUrlList();
+      urlList = getWsdlFromClasspathUrlList(wsdlResources, failures);
     } else {
-      urlList = getWsdlFromDirectoryUrlList();
+      urlList = getWsdlFromDirectoryUrlList(failures);
     }
+    final int wsdlCount = urlList.size() + failures.size();
 
-    if (urlList.isEmpty()) {
+    if (wsdlCount == 0) {
       log.warn("No wsdl found.");
     }
 
-    for (URL url : urlList) {
-      writeSchemaToFile(url, versionProvider.getSchema(url));
+    final SchemaDeduplicator deduplicator = deduplicateSchemas ? new SchemaDeduplicator() : null;
+    final ExtractionManifest manifest = (manifestFile != null) ? new ExtractionManifest() : null;
+    // Concurrent results are written as they complete, so collect by wsdl index to report in order.
+    final SortedMap<Integer, String> operationsIndex =
+        (operationsIndexFile != null) ? new TreeMap<>() : null;
+    final SortedMap<Integer, ExtractionFailure> extractionFailures = new TreeMap<>();
+    final long memoryBudget = memoryBudgetBytes();
+    final long[] sizes = wsdlSizes(urlList);
+    final ExecutorService executor = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+    try {
+      // The first of several identical schemas holds the content when deduplicating, so write
+      // those in wsdl order for the same file to hold it in every execution.
+      final ExtractionScheduler scheduler =
+          (executor == null)
+              ? null
+              : new ExtractionScheduler(
+                  executor,
+                  Arrays.stream(sizes).map(size -> estimatedCost(size, memoryBudget)).toArray(),
+                  new MemoryBudget(memoryBudget),
+                  deduplicator != null,
+                  i -> () -> extractSchema(urlList.get(i), sizes[i], memoryBudget));
+      for (int written = 0; written < urlList.size(); written++) {
+        final int i = (scheduler == null) ? written : scheduler.next();
+        final URL url = urlList.get(i);
+        try {
+          final ExtractedWsdl wsdl =
+              (scheduler == null)
+                  ? extractSchema(url, sizes[i], memoryBudget)
+                  : scheduler.result(i);
+          final String schema = wsdl.schema();
+          final boolean changed =
+              (deduplicator == null)
+                  ? writeSchemaToFile(url, schema)
+                  : writeDeduplicatedSchemaToFile(deduplicator, url, schema);
+          if (manifest != null) {
+            addToManifest(
+                manifest, deduplicator, i, origin(wsdlResources, i, url), url, schema, changed);
+          }
+          if (operationsIndex != null) {
+            operationsIndex.put(i, wsdl.operationsIndex().toJson(url.toString()));
+          }
+        } catch (MojoExecutionException e) {
+          if (failFast) {
+            throw e;
+          }
+          extractionFailures.put(i, ExtractionFailure.of(url, e));
+        } finally {
+          if (scheduler != null) {
+            scheduler.written(i);
+          }
+        }
+      }
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+    failures.addAll(extractionFailures.values());
+
+    if (manifest != null) {
+      writeManifest(manifest);
+    }
+
+    if (operationsIndex != null) {
+      writeOperationsIndex(new ArrayList<>(operationsIndex.values()));
+    }
+
+    if (deduplicator != null) {
+      writeDeduplicationManifest(deduplicator.schemaFileByWsdl());
+      log.info(
+          "Eliminated {} duplicate schema(s), saving {} bytes.",
+          deduplicator.duplicates(),
+          deduplicator.bytesSaved());
+    }
+
+    if (!failFast) {
+      reportFailures(wsdlCount, failures);
+    }
+  }
+
+  /**
+   * Get the size of each wsdl, needed only to admit wsdls parsed concurrently or to decide which
+   * wsdls to stream.
+   *
+   * @param urlList The urls of the wsdls.
+   * @return Size in bytes of each wsdl, or <code>-1</code> where unknown or not needed.
+   */
+  private long[] wsdlSizes(final List<URL> urlList) {
+    final long[] sizes = new long[urlList.size()];
+    if ((threads > 1) || (memoryBudgetMegabytes > 0)) {
+      for (int i = 0; i < sizes.length; i++) {
+        sizes[i] = contentLength(urlList.get(i));
+      }
+    } else {
+      Arrays.fill(sizes, -1);
+    }
+    return sizes;
+  }
+
+  /**
+   * Get the size of a wsdl, from the file system for a <code>file:</code> url rather than reading
+   * it.
+   *
+   * @param url The url of the wsdl.
+   * @return Size in bytes, or <code>-1</code> if unknown.
+   */
+  private static long contentLength(final URL url) {
+    if ("file".equals(url.getProtocol())) {
+      try {
+        final File file = Paths.get(url.toURI()).toFile();
+        return file.isFile() ? file.length() : -1;
+      } catch (URISyntaxException | IllegalArgumentException e) {
+        // Not a plain file path, fall back to reading the wsdl.
+      }
+    }
+    try {
+      final URLConnection connection = url.openConnection();
+      try (InputStream in = connection.getInputStream()) {
+        return connection.getContentLengthLong();
+      }
+    } catch (IOException e) {
+      // The failure to read the wsdl is reported when it is parsed.
+      return -1;
+    }
+  }
+
+  /**
+   * Get the estimated heap used to extract the schema of a wsdl.
+   *
+   * @param size Size of the wsdl in bytes.
+   * @param memoryBudget Heap budget in bytes.
+   * @return Estimated bytes.
+   */
+  private long estimatedCost(final long size, final long memoryBudget) {
+    if (size < 0) {
+      return 0;
+    }
+    return requiresStreaming(size, memoryBudget)
+        ? size * STREAMING_BYTES_PER_WSDL_BYTE
+        : size * DOCUMENT_BYTES_PER_WSDL_BYTE;
+  }
+
+  /**
+   * Determine if the document of a wsdl would exceed a configured heap budget on its own.
+   *
+   * @param size Size of the wsdl in bytes.
+   * @param memoryBudget Heap budget in bytes.
+   * @return True if the schema should be extracted by streaming.
+   */
+  private boolean requiresStreaming(final long size, final long memoryBudget) {
+    return (memoryBudgetMegabytes > 0) && (size > (memoryBudget / DOCUMENT_BYTES_PER_WSDL_BYTE));
+  }
+
+  /**
+   * Get the heap budget for parsing wsdls.
+   *
+   * @return Budget in bytes.
+   */
+  private long memoryBudgetBytes() {
+    if (memoryBudgetMegabytes > 0) {
+      return memoryBudgetMegabytes * 1024 * 1024;
+    }
+    return Runtime.getRuntime().maxMemory() / 2;
+  }
+
+  /**
+   * Extract the schema of a wsdl, streaming the wsdl if its document would exceed the budget.
+   *
+   * @param url The url of the wsdl.
+   * @param size Size of the wsdl in bytes, or <code>-1</code> if unknown.
+   * @param memoryBudget Heap budget in bytes.
+   * @return The schema, and the operations index if <code>operationsIndexFile</code> is set.
+   * @throws MojoExecutionException Exception if the schema could not be obtained.
+   */
+  private ExtractedWsdl extractSchema(final URL url, final long size, final long memoryBudget)
+      throws MojoExecutionException {
+    final boolean streaming = requiresStreaming(size, memoryBudget);
+    if (streaming) {
+      log.info("WSDL of {} bytes exceeds memory budget, streaming: {}", size, url.getFile());
+    }
+    if (operationsIndexFile != null) {
+      return streaming
+          ? versionProvider.getSchemaAndOperationsStreaming(url)
+          : versionProvider.getSchemaAndOperations(url);
+    }
+    return new ExtractedWsdl(
+        streaming ? versionProvider.getSchemaStreaming(url) : versionProvider.getSchema(url),
+        null);
+  }
+
+  /**
+   * Log every extraction failure, write the failure report and fail if any WSDL failed.
+   *
+   * @param wsdlCount Number of WSDLs processed.
+   * @param failures Failures collected while processing.
+   * @throws MojoExecutionException Exception if at least one WSDL failed.
+   */
+  private void reportFailures(final int wsdlCount, final List<ExtractionFailure> failures)
+      throws MojoExecutionException {
+    for (ExtractionFailure failure : failures) {
+      log.error(failure.diagnostic());
+    }
+    if (errorReportFile != null) {
+      final StringBuilder report = new StringBuilder();
+      report.append("{\n  \"wsdlCount\": ").append(wsdlCount);
+      report.append(",\n  \"failureCount\": ").append(failures.size());
+      report.append(",\n  \"failures\": ");
+      report.append(
+          Json.array(
+              failures.stream().map(ExtractionFailure::toJson).collect(Collectors.toList())));
+      report.append("\n}\n");
+      createParentDirectory(errorReportFile);
+      try {
+        Files.write(errorReportFile.toPath(), report.toString().getBytes(StandardCharsets.UTF_8));
+      } catch (IOException | SecurityException e) {
+        throw new MojoExecutionException(e.getMessage());
+      }
+    }
+    if (!failures.isEmpty()) {
+      throw new MojoExecutionException(
+          failures.size()
+              + " of "
+              + wsdlCount
+              + " WSDL(s) failed schema extraction"
+              + ((errorReportFile == null) ? "." : ", see: " + errorReportFile.getAbsolutePath()));
+    }
+  }
+
+  /**
+   * Handle a specified wsdl that could not be resolved, failing unless <code>failFast</code> is
+   * disabled, in which case the failure is collected.
+   *
+   * @param failures Failures collected while processing.
+   * @param wsdl The wsdl as specified.
+   * @param failure The failure.
+   * @throws MojoExecutionException The failure if <code>failFast</code> is enabled.
+   */
+  private void unresolvedWsdl(
+      final List<ExtractionFailure> failures,
+      final String wsdl,
+      final MojoExecutionException failure)
+      throws MojoExecutionException {
+    if (failFast) {
+      throw failure;
     }
+    failures.add(ExtractionFailure.of(wsdl, failure));
   }
 
   /**
    * Get a list of URL for each specified WSDL from the specified dependency.
    *
+   * @param wsdlResources Receives the resource name of each URL returned.
+   * @param failures Receives WSDL resources not found when <code>failFast</code> is disabled.
    * @return List of URL.
    * @throws MojoExecutionException Exception if unexpected condition occurs such as if no WSDLs
    *     found.
    */
-  private List<URL> getWsdlFromClasspathUrlList() throws MojoExecutionException {
+  private List<URL> getWsdlFromClasspathUrlList(
+      final List<String> wsdlResources, final List<ExtractionFailure> failures)
+      throws MojoExecutionException {
 
     if ((wsdlFiles == null) || wsdlFiles.isEmpty()) {
       throw new MojoExecutionException(
@@ -156,9 +498,14 @@ public class SchemaFromWsdlMojo extends AbstractMojo {
         for (final String wsdlResource : wsdlFiles) {
           final URL loadedResourceUrl = loader.getResource(wsdlResource);
           if (loadedResourceUrl == null) {
-            throw new MojoExecutionException("Wsdl resource not found: " + wsdlResource);
+            unresolvedWsdl(
+                failures,
+                wsdlResource,
+                new MojoExecutionException("Wsdl resource not found: " + wsdlResource));
+            continue;
           }
           urlList.add(loadedResourceUrl);
+          wsdlResources.add(wsdlResource);
         }
       } catch (IOException e) {
         throw new MojoExecutionException(e.getMessage());
@@ -171,19 +518,28 @@ public class SchemaFromWsdlMojo extends AbstractMojo {
   /**
    * Get a list of URL for each specified WSDL.
    *
+   * @param failures Receives WSDLs that do not exist when <code>failFast</code> is disabled.
    * @return List of URL.
    * @throws MojoExecutionException Exception if unexpected condition occurs such as if no WSDLs
    *     found.
    */
-  private List<URL> getWsdlFromDirectoryUrlList() throws MojoExecutionException {
+  private List<URL> getWsdlFromDirectoryUrlList(final List<ExtractionFailure> failures)
+      throws MojoExecutionException {
     final List<URL> urlList = new ArrayList<>();
     if (wsdlFiles == null) {
       // If directory exists try to find wsdls there.
       if (wsdlDirectory.exists()) {
         final File[] wsdls = wsdlDirectory.listFiles(WSDL_FILE_FILTER);
         if ((wsdls != null) && (wsdls.length > 0)) {
+          // The order of a listing is unspecified but decides which schema file holds the content
+          // shared by duplicates, so process the wsdls in name order.
+          Arrays.sort(wsdls);
           for (final File wsdl : wsdls) {
-            urlList.add(urlFromFile(wsdl));
+            try {
+              urlList.add(urlFromFile(wsdl));
+            } catch (MojoExecutionException e) {
+              unresolvedWsdl(failures, wsdl.getAbsolutePath(), e);
+            }
           }
         } else {
           throw new MojoExecutionException(
@@ -197,7 +553,11 @@ public class SchemaFromWsdlMojo extends AbstractMojo {
       }
     } else {
       for (final String filename : wsdlFiles) {
-        urlList.add(urlFromFilename(filename));
+        try {
+          urlList.add(urlFromFilename(filename));
+        } catch (MojoExecutionException e) {
+          unresolvedWsdl(failures, filename, e);
+        }
       }
     }
     return urlList;
@@ -239,33 +599,311 @@ public class SchemaFromWsdlMojo extends AbstractMojo {
   }
 
   /**
-   * Output the wsdl associated schema to a file.
+   * Get the schema file associated with a wsdl.
+   *
+   * @param url The url of the wsdl.
+   * @return The schema file within the destination directory.
+   */
+  private File schemaFile(final URL url) {
+    String fileName = new File(url.getPath()).getName();
+    final int index = fileName.lastIndexOf('.');
+    if (index > 0) {
+      fileName = fileName.substring(0, index);
+    }
+    fileName += SCHEMA_FILE_EXTENSION;
+    return new File(sourceDestDir, fileName);
+  }
+
+  /**
+   * Create the parent directory of an output file if it does not already exist.
+   *
+   * @param output The output file.
+   * @throws MojoExecutionException Exception if the parent can not be obtained or created.
+   */
+  private void createParentDirectory(final File output) throws MojoExecutionException {
+    final File parentDirectory = output.getParentFile();
+    if (parentDirectory == null) {
+      throw new MojoExecutionException("Unable to obtain parent for: " + output.getAbsolutePath());
+    }
+    if (!parentDirectory.exists() && !parentDirectory.mkdirs()) {
+      throw new MojoExecutionException("Unable to create parent for: " + output.getAbsolutePath());
+    }
+  }
+
+  /**
+   * Output the wsdl associated schema to a file. A file that already has the same content is left
+   * untouched. A symbolic link left for a duplicate schema by an earlier execution is replaced
+   * rather than followed, so the schema file it links to is never overwritten.
    *
    * @param url The url of the wsdl.
    * @param schema String representation of the associated schema.
+   * @return True if the file was created or its content changed.
    */
-  private void writeSchemaToFile(final URL url, final String schema) throws MojoExecutionException {
+  private boolean writeSchemaToFile(final URL url, final String schema)
+      throws MojoExecutionException {
     try {
-      String fileName = new File(url.getPath()).getName();
-      final int index = fileName.lastIndexOf('.');
-      if (index > 0) {
-        fileName = fileName.substring(0, index);
+      final File output = schemaFile(url);
+      createParentDirectory(output);
+      final Path path = output.toPath();
+      final byte[] content = schema.getBytes(StandardCharsets.UTF_8);
+      if (Files.isSymbolicLink(path)) {
+        Files.delete(path);
+      } else if (Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)
+          && (Files.size(path) == content.length)
+          && Arrays.equals(Files.readAllBytes(path), content)) {
+        log.info("Schema unchanged: {}", output.getAbsolutePath());
+        return false;
       }
-      fileName += SCHEMA_FILE_EXTENSION;
-      final File output = new File(sourceDestDir, fileName);
-      final File parentDirectory = output.getParentFile();
-      if (parentDirectory == null) {
-        throw new MojoExecutionException(
-            "Unable to obtain parent for: " + output.getAbsolutePath());
+      log.info("Writing schema: {}", output.getAbsolutePath());
+      Files.write(path, content);
+      return true;
+    } catch (IOException | SecurityException e) {
+      throw new MojoExecutionException(e.getMessage());
+    }
+  }
+
+  /**
+   * Output the wsdl associated schema to a file unless identical content has already been written
+   * during this execution, in which case the duplicate is handled per <code>deduplicationMode
+   * </code>. The schema is only registered with the deduplicator once its file has been handled, so
+   * a schema that failed to be written is never shared.
+   *
+   * @param deduplicator Tracks the schemas already written.
+   * @param url The url of the wsdl.
+   * @param schema String representation of the associated schema.
+   * @return True if a file for this wsdl was created, removed or its content changed.
+   */
+  private boolean writeDeduplicatedSchemaToFile(
+      final SchemaDeduplicator deduplicator, final URL url, final String schema)
+      throws MojoExecutionException {
+    final File output = schemaFile(url);
+    final String wsdlName = new File(url.getPath()).getName();
+    final String digest = SchemaDeduplicator.digest(schema);
+    final String shared = deduplicator.schemaFile(digest);
+    if (shared == null) {
+      final boolean changed = writeSchemaToFile(url, schema);
+      deduplicator.registerSchema(wsdlName, output.getName(), digest);
+      return changed;
+    }
+    log.info("Schema for {} is identical to: {}", url.getFile(), shared);
+    final boolean changed = writeDuplicateSchemaFile(output, shared);
+    // A copy made where links are not supported saves nothing.
+    final boolean copied =
+        !shared.equals(output.getName())
+            && Files.isRegularFile(output.toPath(), LinkOption.NOFOLLOW_LINKS);
+    deduplicator.registerDuplicate(
+        wsdlName, shared, copied ? 0 : schema.getBytes(StandardCharsets.UTF_8).length);
+    return changed;
+  }
+
+  /**
+   * Represent a duplicate schema per <code>deduplicationMode</code>.
+   *
+   * @param output The schema file of the wsdl.
+   * @param shared Name of the schema file holding the content.
+   * @return True if the schema file of the wsdl was created, removed or changed.
+   */
+  private boolean writeDuplicateSchemaFile(final File output, final String shared)
+      throws MojoExecutionException {
+    if (shared.equals(output.getName())) {
+      return false;
+    }
+    try {
+      if (deduplicationMode != DeduplicationMode.LINK) {
+        // Remove the schema written for this wsdl by an execution without deduplication.
+        if (Files.deleteIfExists(output.toPath())) {
+          log.info("Removing duplicate schema: {}", output.getAbsolutePath());
+          return true;
+        }
+        return false;
       }
-      if (!parentDirectory.exists() && !output.getParentFile().mkdirs()) {
-        throw new MojoExecutionException(
-            "Unable to create parent for: " + output.getAbsolutePath());
+      final Path path = output.toPath();
+      if (Files.isSymbolicLink(path) && Files.readSymbolicLink(path).equals(Paths.get(shared))) {
+        return false;
       }
-      log.info("Writing schema: {}", output.getAbsolutePath());
-      Files.write(output.toPath(), schema.getBytes(StandardCharsets.UTF_8));
+      // Create the link beside the schema file first, so a copy is kept where links fail.
+      final Path link = path.resolveSibling(output.getName() + LINK_SUFFIX);
+      try {
+        Files.deleteIfExists(link);
+        Files.createSymbolicLink(link, Paths.get(shared));
+      } catch (UnsupportedOperationException | IOException e) {
+        return copySharedSchema(output, shared);
+      }
+      log.info("Linking schema: {}", output.getAbsolutePath());
+      Files.move(link, path, StandardCopyOption.REPLACE_EXISTING);
+      return true;
     } catch (IOException | SecurityException e) {
       throw new MojoExecutionException(e.getMessage());
     }
   }
+
+  /**
+   * Copy a shared schema file for a duplicate where links are not supported. A copy that already
+   * has the same content is left untouched.
+   *
+   * @param output The schema file of the wsdl.
+   * @param shared Name of the schema file holding the content.
+   * @return True if the schema file of the wsdl was created or changed.
+   * @throws IOException Exception if the schema file could not be read or copied.
+   */
+  private boolean copySharedSchema(final File output, final String shared) throws IOException {
+    final Path path = output.toPath();
+    final byte[] content = Files.readAllBytes(new File(sourceDestDir, shared).toPath());
+    if (Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)
+        && (Files.size(path) == content.length)
+        && Arrays.equals(Files.readAllBytes(path), content)) {
+      return false;
+    }
+    Files.deleteIfExists(path);
+    log.info("Copying schema: {}", output.getAbsolutePath());
+    Files.write(path, content);
+    return true;
+  }
+
+  /**
+   * Get where a wsdl was configured.
+   *
+   * @param wsdlResources Resource name of each wsdl url when read from a dependency.
+   * @param index Index of the wsdl in the list of wsdls.
+   * @param url The url of the wsdl.
+   * @return Origin.
+   */
+  private ExtractionManifest.Origin origin(
+      final List<String> wsdlResources, final int index, final URL url) {
+    if (wsdlDependency != null) {
+      return new ExtractionManifest.Origin("dependency", wsdlDependency, wsdlResources.get(index));
+    }
+    final File wsdl;
+    try {
+      // Decode the url, unlike its path, so the location names the directory as configured.
+      wsdl = Paths.get(url.toURI()).toFile();
+    } catch (URISyntaxException e) {
+      // The url of a wsdl in a directory is always obtained from its file.
+      throw new IllegalStateException(e);
+    }
+    return new ExtractionManifest.Origin("directory", wsdl.getParent(), wsdl.getName());
+  }
+
+  /**
+   * Record a written schema in the manifest.
+   *
+   * @param manifest The manifest.
+   * @param deduplicator Tracks the schemas already written, or <code>null</code>.
+   * @param index Index of the wsdl in the list of wsdls.
+   * @param origin Where the wsdl was configured.
+   * @param url The url of the wsdl.
+   * @param schema String representation of the schema.
+   * @param changed True if a file for this wsdl was created or its content changed.
+   */
+  private void addToManifest(
+      final ExtractionManifest manifest,
+      final SchemaDeduplicator deduplicator,
+      final int index,
+      final ExtractionManifest.Origin origin,
+      final URL url,
+      final String schema,
+      final boolean changed) {
+    final String schemaFile = schemaFile(url).getName();
+    final String contentFile =
+        (deduplicator == null)
+            ? schemaFile
+            : deduplicator.schemaFileByWsdl().get(new File(url.getPath()).getName());
+    if (schemaFile.equals(contentFile)) {
+      manifest.add(
+          index,
+          url.toString(),
+          origin,
+          schemaFile,
+          schema.getBytes(StandardCharsets.UTF_8),
+          changed);
+    } else {
+      manifest.addDuplicate(
+          index,
+          url.toString(),
+          origin,
+          (deduplicationMode == DeduplicationMode.LINK) ? schemaFile : contentFile,
+          contentFile,
+          schema.getBytes(StandardCharsets.UTF_8),
+          changed);
+    }
+  }
+
+  /**
+   * Output the extraction manifest.
+   *
+   * @param manifest The manifest.
+   */
+  private void writeManifest(final ExtractionManifest manifest) throws MojoExecutionException {
+    createParentDirectory(manifestFile);
+    try {
+      log.info("Writing extraction manifest: {}", manifestFile.getAbsolutePath());
+      Files.write(
+          manifestFile.toPath(),
+          manifest.toJson(sourceDestDir).getBytes(StandardCharsets.UTF_8));
+    } catch (IOException | SecurityException e) {
+      throw new MojoExecutionException(e.getMessage());
+    }
+  }
+
+  /**
+   * Output the manifest mapping each wsdl to the schema file holding its content. Entries are
+   * sorted and no timestamp is written so the file is only rewritten when a mapping changes.
+   *
+   * @param schemaFileByWsdl Schema file name keyed by wsdl file name.
+   */
+  private void writeDeduplicationManifest(final Map<String, String> schemaFileByWsdl)
+      throws MojoExecutionException {
+    final Properties properties = new Properties();
+    properties.putAll(schemaFileByWsdl);
+    final StringWriter stored = new StringWriter();
+    try {
+      properties.store(stored, null);
+    } catch (IOException e) {
+      throw new MojoExecutionException(e.getMessage());
+    }
+    // Each stored entry is escaped onto a single line; drop the timestamp comment.
+    final String entries =
+        Arrays.stream(stored.toString().split("\\R"))
+            .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+            .sorted()
+            .collect(Collectors.joining("\n", "", "\n"));
+    final byte[] content =
+        ("# WSDL to schema file\n" + entries).getBytes(StandardCharsets.ISO_8859_1);
+    final File output = new File(sourceDestDir, DEDUPLICATION_MANIFEST_NAME);
+    createParentDirectory(output);
+    try {
+      if (output.isFile() && Arrays.equals(Files.readAllBytes(output.toPath()), content)) {
+        return;
+      }
+      log.info("Writing schema deduplication manifest: {}", output.getAbsolutePath());
+      Files.write(output.toPath(), content);
+    } catch (IOException | SecurityException e) {
+      throw new MojoExecutionException(e.getMessage());
+    }
+  }
+
+  /**
+   * Output the operations index.
+   *
+   * @param operationsIndex JSON index of each wsdl.
+   */
+  private void writeOperationsIndex(final List<String> operationsIndex)
+      throws MojoExecutionException {
+    final String json = "{\n  \"wsdls\": " + Json.array(operationsIndex) + "\n}\n";
+    createParentDirectory(operationsIndexFile);
+    try {
+      log.info("Writing operations index: {}", operationsIndexFile.getAbsolutePath());
+      Files.write(operationsIndexFile.toPath(), json.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException | SecurityException e) {
+      throw new MojoExecutionException(e.getMessage());
+    }
+  }
+
+  /** How a duplicate schema is represented when schemas are deduplicated. */
+  public enum DeduplicationMode {
+    /** Only the manifest references the shared schema file. */
+    MANIFEST,
+    /** A symbolic link (or copy where unsupported) to the shared schema file is created. */
+    LINK
+  }
 }
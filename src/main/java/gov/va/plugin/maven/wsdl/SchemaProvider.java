@@ -6,4 +6,40 @@ import org.apache.maven.plugin.MojoExecutionException;
 /** Interface a schema provider should implement. */
 public interface SchemaProvider {
   String getSchema(URL url) throws MojoExecutionException;
+
+  /**
+   * Get the schema of a wsdl too large to be held in memory as a whole. Providers that can extract
+   * the schema while streaming the wsdl should override this.
+   *
+   * @param url The URL of the wsdl.
+   * @return String representation of the schema.
+   * @throws MojoExecutionException Exception if the schema could not be obtained.
+   */
+  default String getSchemaStreaming(URL url) throws MojoExecutionException {
+    return getSchema(url);
+  }
+
+  /**
+   * Get the schema of a wsdl together with an index of its operations from a single parse.
+   *
+   * @param url The URL of the wsdl.
+   * @return The schema and operations index.
+   * @throws MojoExecutionException Exception if the schema could not be obtained or the provider
+   *     does not support an operations index.
+   */
+  default ExtractedWsdl getSchemaAndOperations(URL url) throws MojoExecutionException {
+    throw new MojoExecutionException(
+        "Operations index is not supported by: " + getClass().getName());
+  }
+
+  /**
+   * Get the schema and operations index of a wsdl too large to be held in memory as a whole.
+   *
+   * @param url The URL of the wsdl.
+   * @return The schema and operations index.
+   * @throws MojoExecutionException Exception if the schema could not be obtained.
+   */
+  default ExtractedWsdl getSchemaAndOperationsStreaming(URL url) throws MojoExecutionException {
+    return getSchemaAndOperations(url);
+  }
 }
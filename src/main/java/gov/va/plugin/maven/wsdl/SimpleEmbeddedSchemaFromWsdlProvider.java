@@ -19,13 +19,50 @@ import org.apache.maven.plugin.MojoExecutionException;
 @Singleton
 @Slf4j
 public class SimpleEmbeddedSchemaFromWsdlProvider implements SchemaProvider {
+  private static MojoExecutionException parseFailed(
+      URL url, WsdlUtilities.WsdlParseFailedException e) {
+    // Parse failures with a location already name the wsdl.
+    final String message = (e.lineNumber() < 0) ? url + ": " + e.getMessage() : e.getMessage();
+    return new MojoExecutionException(message, e);
+  }
+
   @Override
   public String getSchema(URL url) throws MojoExecutionException {
     try {
       log.info("Reading WSDL: {}", url.getFile());
       return WsdlUtilities.parseSchemaStringFromWsdl(url);
     } catch (WsdlUtilities.WsdlParseFailedException e) {
-      throw new MojoExecutionException(e.getMessage());
+      throw parseFailed(url, e);
+    }
+  }
+
+  @Override
+  public String getSchemaStreaming(URL url) throws MojoExecutionException {
+    try {
+      log.info("Streaming WSDL: {}", url.getFile());
+      return WsdlUtilities.streamSchemaStringFromWsdl(url);
+    } catch (WsdlUtilities.WsdlParseFailedException e) {
+      throw parseFailed(url, e);
+    }
+  }
+
+  @Override
+  public ExtractedWsdl getSchemaAndOperations(URL url) throws MojoExecutionException {
+    try {
+      log.info("Reading WSDL: {}", url.getFile());
+      return WsdlUtilities.parseSchemaAndOperationsFromWsdl(url);
+    } catch (WsdlUtilities.WsdlParseFailedException e) {
+      throw parseFailed(url, e);
+    }
+  }
+
+  @Override
+  public ExtractedWsdl getSchemaAndOperationsStreaming(URL url) throws MojoExecutionException {
+    try {
+      log.info("Streaming WSDL: {}", url.getFile());
+      return WsdlUtilities.streamSchemaAndOperationsFromWsdl(url);
+    } catch (WsdlUtilities.WsdlParseFailedException e) {
+      throw parseFailed(url, e);
     }
   }
 }
@@ -0,0 +1,257 @@
+package gov.va.plugin.maven.wsdl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the services, ports and operations of a wsdl, with the elements (or types) of each
+ * operation's input and output messages.
+ *
+ * <p>The index is collected from the same parse used to extract the schema. The parser reports each
+ * wsdl element through {@link #startElement} and {@link #endElement}. Qualified names in the index
+ * are written as <code>{namespace}localPart</code>.
+ */
+public final class WsdlOperationsIndex {
+
+  private static final String WSDL_NS_URI = "http://schemas.xmlsoap.org/wsdl/";
+
+  private String targetNamespace;
+
+  /** Elements (or types) of the parts of each message, keyed by message name. */
+  private final Map<String, List<String>> messageParts = new LinkedHashMap<>();
+
+  /** Operations of each port type, keyed by port type name. */
+  private final Map<String, List<Operation>> portTypes = new LinkedHashMap<>();
+
+  /** Port type of each binding, keyed by binding name. */
+  private final Map<String, String> bindings = new LinkedHashMap<>();
+
+  /** Ports of each service, keyed by service name. */
+  private final Map<String, List<Port>> services = new LinkedHashMap<>();
+
+  private List<String> currentMessage;
+
+  private List<Operation> currentPortType;
+
+  private Operation currentOperation;
+
+  private List<Port> currentService;
+
+  WsdlOperationsIndex() {}
+
+  /**
+   * Get the qualified name of a definition in the target namespace.
+   *
+   * @param localPart The name of the definition.
+   * @return Qualified name.
+   */
+  private String qualified(final String localPart) {
+    return "{" + ((targetNamespace == null) ? "" : targetNamespace) + "}" + localPart;
+  }
+
+  /**
+   * Resolve a prefixed name found in an attribute value.
+   *
+   * @param value Attribute value such as <code>tns:name</code>.
+   * @param namespaceOfPrefix Resolves a prefix, the empty prefix being the default namespace.
+   * @return Qualified name, or <code>null</code> if the value is absent.
+   */
+  private static String resolve(final String value, final UnaryOperator<String> namespaceOfPrefix) {
+    if ((value == null) || value.isEmpty()) {
+      return null;
+    }
+    final int colon = value.indexOf(':');
+    final String prefix = (colon < 0) ? "" : value.substring(0, colon);
+    final String namespace = namespaceOfPrefix.apply(prefix);
+    return "{" + ((namespace == null) ? "" : namespace) + "}" + value.substring(colon + 1);
+  }
+
+  /**
+   * Report the start of an element.
+   *
+   * @param namespaceUri Namespace of the element.
+   * @param localName Local name of the element.
+   * @param attribute Gets the value of an unqualified attribute, or <code>null</code> if absent.
+   * @param namespaceOfPrefix Resolves a prefix in scope at the element.
+   */
+  void startElement(
+      final String namespaceUri,
+      final String localName,
+      final UnaryOperator<String> attribute,
+      final UnaryOperator<String> namespaceOfPrefix) {
+    if (!WSDL_NS_URI.equals(namespaceUri)) {
+      return;
+    }
+    switch (localName) {
+      case "definitions":
+        targetNamespace = attribute.apply("targetNamespace");
+        break;
+      case "message":
+        currentMessage = new ArrayList<>();
+        messageParts.put(qualified(attribute.apply("name")), currentMessage);
+        break;
+      case "part":
+        if (currentMessage != null) {
+          final String element = attribute.apply("element");
+          currentMessage.add(
+              resolve((element == null) ? attribute.apply("type") : element, namespaceOfPrefix));
+        }
+        break;
+      case "portType":
+        currentPortType = new ArrayList<>();
+        portTypes.put(qualified(attribute.apply("name")), currentPortType);
+        break;
+      case "operation":
+        if (currentPortType != null) {
+          currentOperation = new Operation(attribute.apply("name"));
+          currentPortType.add(currentOperation);
+        }
+        break;
+      case "input":
+        if (currentOperation != null) {
+          currentOperation.input = resolve(attribute.apply("message"), namespaceOfPrefix);
+        }
+        break;
+      case "output":
+        if (currentOperation != null) {
+          currentOperation.output = resolve(attribute.apply("message"), namespaceOfPrefix);
+        }
+        break;
+      case "binding":
+        bindings.put(
+            qualified(attribute.apply("name")),
+            resolve(attribute.apply("type"), namespaceOfPrefix));
+        break;
+      case "service":
+        currentService = new ArrayList<>();
+        services.put(qualified(attribute.apply("name")), currentService);
+        break;
+      case "port":
+        if (currentService != null) {
+          currentService.add(
+              new Port(
+                  attribute.apply("name"), resolve(attribute.apply("binding"), namespaceOfPrefix)));
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Report the end of an element.
+   *
+   * @param namespaceUri Namespace of the element.
+   * @param localName Local name of the element.
+   */
+  void endElement(final String namespaceUri, final String localName) {
+    if (!WSDL_NS_URI.equals(namespaceUri)) {
+      return;
+    }
+    switch (localName) {
+      case "message":
+        currentMessage = null;
+        break;
+      case "portType":
+        currentPortType = null;
+        break;
+      case "operation":
+        currentOperation = null;
+        break;
+      case "service":
+        currentService = null;
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Get the JSON array of the elements of a message.
+   *
+   * @param message Qualified name of the message, may be <code>null</code>.
+   * @return JSON array, or <code>null</code> if there is no message or it is not defined in this
+   *     wsdl, such as a message of an imported wsdl.
+   */
+  private String messageJson(final String message) {
+    final List<String> parts = (message == null) ? null : messageParts.get(message);
+    if (parts == null) {
+      return "null";
+    }
+    return parts.stream().map(Json::quote).collect(Collectors.joining(", ", "[", "]"));
+  }
+
+  /**
+   * Get the JSON representation of the index.
+   *
+   * @param wsdl Location of the wsdl.
+   * @return JSON object.
+   */
+  String toJson(final String wsdl) {
+    final StringBuilder json = new StringBuilder();
+    json.append("{\"wsdl\": ").append(Json.quote(wsdl));
+    json.append(", \"targetNamespace\": ").append(Json.quote(targetNamespace));
+    json.append(", \"services\": [");
+    String separator = "";
+    for (Map.Entry<String, List<Port>> service : services.entrySet()) {
+      json.append(separator).append("{\"name\": ").append(Json.quote(service.getKey()));
+      json.append(", \"ports\": [");
+      String portSeparator = "";
+      for (Port port : service.getValue()) {
+        json.append(portSeparator).append("{\"name\": ").append(Json.quote(port.name));
+        json.append(", \"binding\": ").append(Json.quote(port.binding));
+        json.append(", \"portType\": ").append(Json.quote(bindings.get(port.binding)));
+        json.append('}');
+        portSeparator = ", ";
+      }
+      json.append("]}");
+      separator = ", ";
+    }
+    json.append("], \"portTypes\": [");
+    separator = "";
+    for (Map.Entry<String, List<Operation>> portType : portTypes.entrySet()) {
+      json.append(separator).append("{\"name\": ").append(Json.quote(portType.getKey()));
+      json.append(", \"operations\": [");
+      String operationSeparator = "";
+      for (Operation operation : portType.getValue()) {
+        json.append(operationSeparator).append("{\"name\": ").append(Json.quote(operation.name));
+        json.append(", \"input\": ").append(messageJson(operation.input));
+        json.append(", \"output\": ").append(messageJson(operation.output));
+        json.append('}');
+        operationSeparator = ", ";
+      }
+      json.append("]}");
+      separator = ", ";
+    }
+    return json.append("]}").toString();
+  }
+
+  /** An operation of a port type and the names of its input and output messages. */
+  private static final class Operation {
+    private final String name;
+
+    private String input;
+
+    private String output;
+
+    Operation(final String name) {
+      this.name = name;
+    }
+  }
+
+  /** A port of a service and the name of its binding. */
+  private static final class Port {
+    private final String name;
+
+    private final String binding;
+
+    Port(final String name, final String binding) {
+      this.name = name;
+      this.binding = binding;
+    }
+  }
+}
@@ -1,21 +1,46 @@
 package gov.va.plugin.maven.wsdl;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Comment;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.ProcessingInstruction;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
 
 /**
  * Utilities for parsing wsdl specifically to obtain an embedded schema. This implementation is
@@ -37,6 +62,9 @@ public final class WsdlUtilities {
 
   private static final String ELEMENT_TAG_SCHEMA = "schema";
 
+  private static final String PROPERTY_REPORT_CDATA =
+      "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
   /**
    * Get a document builder factory.
    *
@@ -67,6 +95,9 @@ public final class WsdlUtilities {
       DocumentBuilder builder = factory.newDocumentBuilder();
       InputSource is = new InputSource(url.toString());
       return builder.parse(is);
+    } catch (SAXParseException e) {
+      // Caught on its own so the constructor recording the line and column is chosen.
+      throw new WsdlParseFailedException(e);
     } catch (ParserConfigurationException | SAXException | IOException e) {
       throw new WsdlParseFailedException(e);
     }
@@ -86,7 +117,8 @@ public final class WsdlUtilities {
         wsdlDoc.getElementsByTagNameNS(XMLConstants.W3C_XML_SCHEMA_NS_URI, ELEMENT_TAG_SCHEMA);
     // NOTE: this simplistic implementation assumes only one schema in the wsdl.
     if (schemas.getLength() != 1) {
-      throw new WsdlParseFailedException("Expected a single schema within the given wsdl.");
+      throw new WsdlParseFailedException(
+          "Expected a single schema within the given wsdl but found " + schemas.getLength() + ".");
     }
     return schemas.item(0);
   }
@@ -102,6 +134,63 @@ public final class WsdlUtilities {
     return parseStringFromNode(parseSchemaNodeFromWsdl(parse(url)));
   }
 
+  /**
+   * Get the string representation of an embedded schema and the index of the operations of a wsdl
+   * from a single parse of the wsdl.
+   *
+   * @param url The URL of the wsdl to parse.
+   * @return The schema and operations index.
+   * @throws WsdlParseFailedException Exception if unexpected error occurred.
+   */
+  public static ExtractedWsdl parseSchemaAndOperationsFromWsdl(final URL url)
+      throws WsdlParseFailedException {
+    final Document wsdlDoc = parse(url);
+    final String schema = parseStringFromNode(parseSchemaNodeFromWsdl(wsdlDoc));
+    final WsdlOperationsIndex operationsIndex = new WsdlOperationsIndex();
+    indexElement(wsdlDoc.getDocumentElement(), operationsIndex);
+    return new ExtractedWsdl(schema, operationsIndex);
+  }
+
+  /**
+   * Report an element and its descendants, other than schemas, to an operations index.
+   *
+   * @param element The element.
+   * @param operationsIndex The operations index.
+   */
+  private static void indexElement(
+      final Element element, final WsdlOperationsIndex operationsIndex) {
+    operationsIndex.startElement(
+        element.getNamespaceURI(),
+        element.getLocalName(),
+        name -> element.hasAttribute(name) ? element.getAttribute(name) : null,
+        prefix -> element.lookupNamespaceURI(prefix.isEmpty() ? null : prefix));
+    if (!XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(element.getNamespaceURI())) {
+      for (org.w3c.dom.Node child = element.getFirstChild();
+          child != null;
+          child = child.getNextSibling()) {
+        if (child.getNodeType() == org.w3c.dom.Node.ELEMENT_NODE) {
+          indexElement((Element) child, operationsIndex);
+        }
+      }
+    }
+    operationsIndex.endElement(element.getNamespaceURI(), element.getLocalName());
+  }
+
+  /**
+   * Get a transformer factory used to serialize schemas.
+   *
+   * @return TransformerFactory.
+   * @throws TransformerConfigurationException Exception if failed to configure the factory.
+   */
+  private static TransformerFactory getTransformerFactory()
+      throws TransformerConfigurationException {
+    TransformerFactory tf = TransformerFactory.newInstance();
+    tf.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+    tf.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+    tf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+    return tf;
+  }
+
   /**
    * Get the string representation of a dom source.
    *
@@ -112,11 +201,7 @@ public final class WsdlUtilities {
   private static String parseStringFromDomSource(DOMSource domSource)
       throws WsdlParseFailedException {
     try {
-      TransformerFactory tf = TransformerFactory.newInstance();
-      tf.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-      tf.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
-      tf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-      Transformer transformer = tf.newTransformer();
+      Transformer transformer = getTransformerFactory().newTransformer();
       StringWriter writer = new StringWriter();
       StreamResult result = new StreamResult(writer);
       transformer.transform(domSource, result);
@@ -137,17 +222,369 @@ public final class WsdlUtilities {
     return parseStringFromDomSource(new DOMSource(node));
   }
 
-  /** Encapsulate exceptional conditions with this custom exception. */
+  /**
+   * Get the string representation of an embedded schema within a wsdl without building a document
+   * of the whole wsdl. The wsdl is read as a stream of events and only the schema is retained, so
+   * memory use is bounded by the size of the schema rather than a multiple of the wsdl.
+   *
+   * <p>The result is identical to that of {@link #parseSchemaStringFromWsdl}.
+   *
+   * @param url The URL of the wsdl to parse.
+   * @return A string.
+   * @throws WsdlParseFailedException Exception if unexpected error occurred.
+   */
+  public static String streamSchemaStringFromWsdl(final URL url) throws WsdlParseFailedException {
+    return streamSchemaStringFromWsdl(url, null);
+  }
+
+  /**
+   * Get the string representation of an embedded schema and the index of the operations of a wsdl
+   * while streaming the wsdl once.
+   *
+   * @param url The URL of the wsdl to parse.
+   * @return The schema and operations index.
+   * @throws WsdlParseFailedException Exception if unexpected error occurred.
+   */
+  public static ExtractedWsdl streamSchemaAndOperationsFromWsdl(final URL url)
+      throws WsdlParseFailedException {
+    final WsdlOperationsIndex operationsIndex = new WsdlOperationsIndex();
+    return new ExtractedWsdl(streamSchemaStringFromWsdl(url, operationsIndex), operationsIndex);
+  }
+
+  /**
+   * Stream a wsdl, retaining its embedded schema and reporting other elements to an index.
+   *
+   * @param url The URL of the wsdl to parse.
+   * @param operationsIndex Index to report wsdl elements to, or <code>null</code>.
+   * @return A string.
+   * @throws WsdlParseFailedException Exception if unexpected error occurred.
+   */
+  private static String streamSchemaStringFromWsdl(
+      final URL url, final WsdlOperationsIndex operationsIndex) throws WsdlParseFailedException {
+    final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    // Expand entities declared in an internal subset, as the document builder does, but never
+    // read an external DTD or entity.
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+    inputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    if (inputFactory.isPropertySupported(XMLConstants.ACCESS_EXTERNAL_DTD)) {
+      inputFactory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+    }
+    inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    if (inputFactory.isPropertySupported(PROPERTY_REPORT_CDATA)) {
+      // Keep CDATA sections, as the document builder does.
+      inputFactory.setProperty(PROPERTY_REPORT_CDATA, true);
+    }
+    final StringWriter writer = new StringWriter();
+    try (InputStream in = url.openStream()) {
+      final XMLEventReader reader = inputFactory.createXMLEventReader(url.toString(), in);
+      SchemaSerializer schemaSerializer = null;
+      int schemaDepth = 0;
+      int schemas = 0;
+      while (reader.hasNext()) {
+        final XMLEvent event = reader.nextEvent();
+        if (schemaDepth > 0) {
+          // Copy the content of the schema being extracted.
+          if (event.isStartElement()) {
+            schemaDepth++;
+          } else if (event.isEndElement()) {
+            schemaDepth--;
+          }
+          schemaSerializer.add(event);
+          if (schemaDepth == 0) {
+            schemaSerializer.end();
+          }
+        } else if (event.isStartElement()) {
+          final StartElement element = event.asStartElement();
+          if (isSchema(element) && (++schemas == 1)) {
+            schemaSerializer = new SchemaSerializer(writer);
+            schemaSerializer.add(element);
+            schemaDepth = 1;
+          } else if (operationsIndex != null) {
+            operationsIndex.startElement(
+                element.getName().getNamespaceURI(),
+                element.getName().getLocalPart(),
+                name -> attributeValue(element, name),
+                prefix -> element.getNamespaceContext().getNamespaceURI(prefix));
+          }
+        } else if (event.isEndElement() && (operationsIndex != null)) {
+          final QName name = event.asEndElement().getName();
+          operationsIndex.endElement(name.getNamespaceURI(), name.getLocalPart());
+        }
+      }
+      reader.close();
+      if (schemas != 1) {
+        throw new WsdlParseFailedException(
+            "Expected a single schema within the given wsdl but found " + schemas + ".");
+      }
+      return writer.toString();
+    } catch (XMLStreamException e) {
+      throw new WsdlParseFailedException(url.toString(), e);
+    } catch (IOException | SAXException | TransformerConfigurationException e) {
+      throw new WsdlParseFailedException(e);
+    }
+  }
+
+  /**
+   * Get the value of an unqualified attribute of an element.
+   *
+   * @param element The element.
+   * @param name The attribute name.
+   * @return The value, or <code>null</code> if absent.
+   */
+  private static String attributeValue(final StartElement element, final String name) {
+    final Attribute attribute = element.getAttributeByName(new QName(name));
+    return (attribute == null) ? null : attribute.getValue();
+  }
+
+  /**
+   * Determine if an element is an XML schema.
+   *
+   * @param element The element.
+   * @return True if the element is a schema.
+   */
+  private static boolean isSchema(final StartElement element) {
+    return XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(element.getName().getNamespaceURI())
+        && ELEMENT_TAG_SCHEMA.equals(element.getName().getLocalPart());
+  }
+
+  /**
+   * Serializes a schema read as a stream of events exactly as {@link #parseStringFromNode}
+   * serializes the schema element of a document.
+   *
+   * <p>Events are written to the same serializer used for a document. As when serializing a
+   * document node, attributes are written in name order, namespace declarations of the element
+   * first, and a namespace is only declared where an element or attribute name uses it and it is
+   * not already in scope in the output. Namespaces declared by enclosing wsdl elements are
+   * therefore not inherited.
+   */
+  private static final class SchemaSerializer {
+
+    private static final String XMLNS = "xmlns";
+
+    private final TransformerHandler handler;
+
+    /** Namespaces declared in the output by each open element, innermost first. */
+    private final Deque<Map<String, String>> declared = new ArrayDeque<>();
+
+    /** Adjacent character data, which a document holds as a single text node. */
+    private final StringBuilder text = new StringBuilder();
+
+    SchemaSerializer(final Writer writer) throws SAXException, TransformerConfigurationException {
+      handler = ((SAXTransformerFactory) getTransformerFactory()).newTransformerHandler();
+      handler.setResult(new StreamResult(writer));
+      handler.startDocument();
+    }
+
+    /**
+     * Write an event of the schema.
+     *
+     * @param event The event.
+     * @throws SAXException Exception if the event could not be written.
+     */
+    void add(final XMLEvent event) throws SAXException {
+      if (event.isCharacters() && !event.asCharacters().isCData()) {
+        text.append(event.asCharacters().getData());
+        return;
+      }
+      flushText();
+      if (event.isStartElement()) {
+        startElement(event.asStartElement());
+      } else if (event.isEndElement()) {
+        handler.endElement("", "", qualifiedName(event.asEndElement().getName()));
+        declared.pop();
+      } else if (event.isCharacters()) {
+        final char[] data = event.asCharacters().getData().toCharArray();
+        handler.startCDATA();
+        handler.characters(data, 0, data.length);
+        handler.endCDATA();
+      } else if (event.getEventType() == XMLStreamConstants.COMMENT) {
+        final char[] data = ((Comment) event).getText().toCharArray();
+        handler.comment(data, 0, data.length);
+      } else if (event.isProcessingInstruction()) {
+        final ProcessingInstruction instruction = (ProcessingInstruction) event;
+        handler.processingInstruction(
+            instruction.getTarget(),
+            (instruction.getData() == null) ? "" : instruction.getData());
+      }
+    }
+
+    /**
+     * Complete the schema once its end element has been written.
+     *
+     * @throws SAXException Exception if the schema could not be written.
+     */
+    void end() throws SAXException {
+      flushText();
+      handler.endDocument();
+    }
+
+    private void flushText() throws SAXException {
+      if (text.length() > 0) {
+        final char[] data = text.toString().toCharArray();
+        text.setLength(0);
+        handler.characters(data, 0, data.length);
+      }
+    }
+
+    private void startElement(final StartElement element) throws SAXException {
+      final Map<String, String> namespaces = new HashMap<>();
+      declared.push(namespaces);
+      final AttributesImpl attributes = new AttributesImpl();
+      final SortedMap<String, Namespace> declarations = new TreeMap<>();
+      element
+          .getNamespaces()
+          .forEachRemaining(n -> declarations.put(declarationName(n.getPrefix()), n));
+      for (final Namespace namespace : declarations.values()) {
+        // An undeclaration of the default namespace has no namespace.
+        final String namespaceUri = namespace.getNamespaceURI();
+        declare(
+            namespaces,
+            attributes,
+            namespace.getPrefix(),
+            (namespaceUri == null) ? "" : namespaceUri);
+      }
+      final SortedMap<String, Attribute> byName = new TreeMap<>();
+      element
+          .getAttributes()
+          .forEachRemaining(a -> byName.put(qualifiedName(a.getName()), a));
+      for (final Map.Entry<String, Attribute> attribute : byName.entrySet()) {
+        final QName name = attribute.getValue().getName();
+        if (!name.getNamespaceURI().isEmpty()) {
+          declare(namespaces, attributes, name.getPrefix(), name.getNamespaceURI());
+        }
+        attributes.addAttribute(
+            "", "", attribute.getKey(), "CDATA", attribute.getValue().getValue());
+      }
+      final QName name = element.getName();
+      declare(namespaces, attributes, name.getPrefix(), name.getNamespaceURI());
+      handler.startElement("", "", qualifiedName(name), attributes);
+    }
+
+    /**
+     * Declare a namespace on the element being started unless the prefix is already bound to it in
+     * the output, or was already declared on the element.
+     *
+     * @param namespaces Namespaces declared on the element.
+     * @param attributes Attributes of the element.
+     * @param prefix The prefix, empty for the default namespace.
+     * @param namespaceUri The namespace, empty for no namespace.
+     */
+    private void declare(
+        final Map<String, String> namespaces,
+        final AttributesImpl attributes,
+        final String prefix,
+        final String namespaceUri) {
+      if (prefix.startsWith(XMLConstants.XML_NS_PREFIX)
+          || namespaces.containsKey(prefix)
+          || namespaceUri.equals(namespaceInScope(prefix))) {
+        return;
+      }
+      namespaces.put(prefix, namespaceUri);
+      if (prefix.isEmpty() || !namespaceUri.isEmpty()) {
+        attributes.addAttribute("", "", declarationName(prefix), "CDATA", namespaceUri);
+      }
+    }
+
+    private static String declarationName(final String prefix) {
+      return prefix.isEmpty() ? XMLNS : XMLNS + ":" + prefix;
+    }
+
+    private String namespaceInScope(final String prefix) {
+      for (final Map<String, String> namespaces : declared) {
+        if (namespaces.containsKey(prefix)) {
+          return namespaces.get(prefix);
+        }
+      }
+      return prefix.isEmpty() ? "" : null;
+    }
+
+    private static String qualifiedName(final QName name) {
+      return name.getPrefix().isEmpty()
+          ? name.getLocalPart()
+          : name.getPrefix() + ":" + name.getLocalPart();
+    }
+  }
+
+  /**
+   * Encapsulate exceptional conditions with this custom exception. The line and column of the
+   * failure are available when the wsdl could not be parsed, otherwise they are <code>-1</code>.
+   */
   public static class WsdlParseFailedException extends RuntimeException {
 
     private static final long serialVersionUID = 1L;
 
+    private static final String STREAM_MESSAGE_PREFIX = "Message: ";
+
+    private final int lineNumber;
+
+    private final int columnNumber;
+
+    private final String reason;
+
     WsdlParseFailedException(String message) {
       super(message);
+      lineNumber = -1;
+      columnNumber = -1;
+      reason = message;
     }
 
     WsdlParseFailedException(Exception cause) {
       super(cause);
+      lineNumber = -1;
+      columnNumber = -1;
+      reason = getMessage();
+    }
+
+    WsdlParseFailedException(SAXParseException cause) {
+      this(
+          cause.getSystemId(),
+          cause.getLineNumber(),
+          cause.getColumnNumber(),
+          cause.getMessage(),
+          cause);
+    }
+
+    WsdlParseFailedException(String systemId, XMLStreamException cause) {
+      this(
+          systemId,
+          (cause.getLocation() == null) ? -1 : cause.getLocation().getLineNumber(),
+          (cause.getLocation() == null) ? -1 : cause.getLocation().getColumnNumber(),
+          reasonOf(cause),
+          cause);
+    }
+
+    private WsdlParseFailedException(
+        String systemId, int lineNumber, int columnNumber, String reason, Exception cause) {
+      super(systemId + ":" + lineNumber + ":" + columnNumber + ": " + reason, cause);
+      this.lineNumber = lineNumber;
+      this.columnNumber = columnNumber;
+      this.reason = reason;
+    }
+
+    /**
+     * Get the reason of a stream parse failure. The message of the JDK parser is prefixed with the
+     * location, which is reported separately.
+     */
+    private static String reasonOf(XMLStreamException cause) {
+      final String message = String.valueOf(cause.getMessage());
+      final int index = message.indexOf(STREAM_MESSAGE_PREFIX);
+      return (index < 0) ? message : message.substring(index + STREAM_MESSAGE_PREFIX.length());
+    }
+
+    /** Line of the wsdl at which parsing failed, or <code>-1</code> if unknown. */
+    public int lineNumber() {
+      return lineNumber;
+    }
+
+    /** Column of the wsdl at which parsing failed, or <code>-1</code> if unknown. */
+    public int columnNumber() {
+      return columnNumber;
+    }
+
+    /** Description of the failure without its location. */
+    public String reason() {
+      return reason;
     }
   }
 }
@@ -0,0 +1,369 @@
+package gov.va.plugin.maven.wsdl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import lombok.SneakyThrows;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Scale tests using generated WSDL fixtures.
+ *
+ * <p>Extraction is run in a forked JVM with a fixed maximum heap so that a regression in memory
+ * behavior fails with an out of memory error rather than going unnoticed in a generously sized test
+ * JVM. The peak heap the forked JVM retains must also stay within a bound derived from the size of
+ * the WSDLs held at once, and each scenario must complete within a wall time budget derived from
+ * the size of its fixtures. Sizes and budgets can be changed for local runs using system
+ * properties, e.g. <code>-Dscale.wsdl.megabytes=100</code>.
+ */
+public class SchemaFromWsdlMojoScaleTest {
+
+  /** Approximate size of the single large WSDL. */
+  private static final long LARGE_WSDL_BYTES =
+      Long.getLong("scale.wsdl.megabytes", 10L) * 1024 * 1024;
+
+  /** Number of WSDLs extracted in a single execution. */
+  private static final int WSDL_COUNT = Integer.getInteger("scale.wsdl.count", 200);
+
+  /** Complex types in each of the many WSDLs. */
+  private static final int COMPLEX_TYPES_PER_WSDL = 100;
+
+  /** Maximum heap of the forked JVM. */
+  private static final int MAX_HEAP_MEGABYTES = Integer.getInteger("scale.heap.megabytes", 256);
+
+  /** Wall time allowed for starting the forked JVM, in addition to the time per megabyte. */
+  private static final Duration STARTUP_BUDGET =
+      Duration.ofSeconds(Long.getLong("scale.budget.startup.seconds", 2L));
+
+  /**
+   * Wall time allowed per megabyte of WSDL extracted in a scenario, about twice that observed on a
+   * single core.
+   */
+  private static final Duration BUDGET_PER_MEGABYTE =
+      Duration.ofMillis(Long.getLong("scale.budget.millis.per.megabyte", 750L));
+
+  /** Heap retained by the forked JVM before any WSDL is held, in megabytes. */
+  private static final long HEAP_BASE_MEGABYTES = Long.getLong("scale.heap.base.megabytes", 8L);
+
+  /**
+   * Heap allowed per byte of WSDL parsed into a document, about 1.2 times the heap observed to be
+   * retained.
+   */
+  private static final int DOCUMENT_HEAP_PER_WSDL_BYTE =
+      Integer.getInteger("scale.heap.document.bytes.per.byte", 13);
+
+  /** Heap allowed per byte of WSDL streamed, the schema held as a string. */
+  private static final int STREAMING_HEAP_PER_WSDL_BYTE =
+      Integer.getInteger("scale.heap.streaming.bytes.per.byte", 3);
+
+  /** Interval at which the forked JVM requests a full garbage collection to sample its heap. */
+  private static final Duration HEAP_SAMPLE_INTERVAL = Duration.ofMillis(250);
+
+  /** Action reported for a garbage collection of the whole heap. */
+  private static final String FULL_COLLECTION_ACTION = "end of major GC";
+
+  /** System property naming the file the forked JVM writes its peak heap to. */
+  private static final String PEAK_HEAP_FILE_PROPERTY = "scale.peak.heap.file";
+
+  /** Temporary folder for generated fixtures and the plugin destination directory. */
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /**
+   * Entry point of the forked JVM. Either extract the schema of every WSDL in a directory using
+   * the Mojo, or extract the schema of a single WSDL using {@link WsdlUtilities}.
+   *
+   * @param args <code>mojo</code>, WSDL directory, destination directory, number of threads and
+   *     memory budget in megabytes; or <code>utilities</code>, WSDL file and schema file.
+   */
+  @SneakyThrows
+  public static void main(String[] args) {
+    final AtomicLong peakHeap = monitorPeakHeap();
+    if ("utilities".equals(args[0])) {
+      final String schema =
+          WsdlUtilities.parseSchemaStringFromWsdl(new File(args[1]).toURI().toURL());
+      Files.write(Paths.get(args[2]), schema.getBytes(UTF_8));
+    } else {
+      SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+      schemaFromWsdlMojo.wsdlDirectory(new File(args[1]));
+      schemaFromWsdlMojo.sourceDestDir(new File(args[2]));
+      schemaFromWsdlMojo.threads(Integer.parseInt(args[3]));
+      schemaFromWsdlMojo.memoryBudgetMegabytes(Long.parseLong(args[4]));
+      schemaFromWsdlMojo.versionProvider(new SimpleEmbeddedSchemaFromWsdlProvider());
+      schemaFromWsdlMojo.execute();
+    }
+    Files.write(
+        Paths.get(System.getProperty(PEAK_HEAP_FILE_PROPERTY)),
+        Long.toString(peakHeap.get()).getBytes(UTF_8));
+  }
+
+  /**
+   * Track the peak heap retained, measured after each full garbage collection. A full collection
+   * is also requested periodically so the heap is sampled even when the extraction does not fill
+   * it. Usage after a partial collection, or the peak usage of the heap pools, would include
+   * garbage not yet collected and so depend on the maximum heap rather than the extraction.
+   *
+   * @return Peak heap bytes retained, updated as collections are reported.
+   */
+  private static AtomicLong monitorPeakHeap() {
+    final Set<String> heapPools =
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .map(MemoryPoolMXBean::getName)
+            .collect(Collectors.toSet());
+    final AtomicLong peakHeap = new AtomicLong();
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      ((NotificationEmitter) collector)
+          .addNotificationListener(
+              (notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(
+                    notification.getType())) {
+                  return;
+                }
+                final GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from(
+                        (CompositeData) notification.getUserData());
+                if (FULL_COLLECTION_ACTION.equals(info.getGcAction())) {
+                  final long used =
+                      info.getGcInfo().getMemoryUsageAfterGc().entrySet().stream()
+                          .filter(pool -> heapPools.contains(pool.getKey()))
+                          .mapToLong(pool -> pool.getValue().getUsed())
+                          .sum();
+                  peakHeap.accumulateAndGet(used, Math::max);
+                }
+              },
+              null,
+              null);
+    }
+    Executors.newSingleThreadScheduledExecutor(
+            task -> {
+              final Thread thread = new Thread(task);
+              thread.setDaemon(true);
+              return thread;
+            })
+        .scheduleWithFixedDelay(
+            System::gc,
+            HEAP_SAMPLE_INTERVAL.toMillis(),
+            HEAP_SAMPLE_INTERVAL.toMillis(),
+            TimeUnit.MILLISECONDS);
+    return peakHeap;
+  }
+
+  /**
+   * Get the wall time budget of a scenario.
+   *
+   * @param wsdls A WSDL file, or directory of WSDL files, extracted in the scenario.
+   * @return Budget.
+   */
+  @SneakyThrows
+  private static Duration budget(final Path wsdls) {
+    final long bytes;
+    try (Stream<Path> files = Files.walk(wsdls)) {
+      bytes = files.filter(Files::isRegularFile).mapToLong(f -> f.toFile().length()).sum();
+    }
+    final long megabytes = (bytes + (1024 * 1024) - 1) / (1024 * 1024);
+    return STARTUP_BUDGET.plus(BUDGET_PER_MEGABYTE.multipliedBy(megabytes));
+  }
+
+  /**
+   * Run the Mojo over a directory in a forked JVM with a constrained heap.
+   *
+   * @param wsdlDirectory Directory of generated WSDLs.
+   * @param sourceDestDir Destination directory for extracted schemas.
+   * @param maxHeapMegabytes Maximum heap of the forked JVM.
+   * @param threads Number of WSDLs parsed concurrently.
+   * @param memoryBudgetMegabytes Memory budget of the Mojo, <code>0</code> for the default.
+   * @return Peak heap bytes retained by the forked JVM.
+   */
+  private long executeInConstrainedJvm(
+      final File wsdlDirectory,
+      final File sourceDestDir,
+      final int maxHeapMegabytes,
+      final int threads,
+      final int memoryBudgetMegabytes) {
+    return executeInConstrainedJvm(
+        budget(wsdlDirectory.toPath()),
+        maxHeapMegabytes,
+        "mojo",
+        wsdlDirectory.getAbsolutePath(),
+        sourceDestDir.getAbsolutePath(),
+        Integer.toString(threads),
+        Integer.toString(memoryBudgetMegabytes));
+  }
+
+  /**
+   * Run {@link #main} in a forked JVM with a constrained heap, failing if it does not complete
+   * successfully within a wall time budget.
+   *
+   * @param budget Wall time budget.
+   * @param maxHeapMegabytes Maximum heap of the forked JVM.
+   * @param args Arguments of {@link #main}.
+   * @return Peak heap bytes retained by the forked JVM.
+   */
+  @SneakyThrows
+  private long executeInConstrainedJvm(
+      final Duration budget, final int maxHeapMegabytes, final String... args) {
+    final File peakHeapFile = temporaryFolder.newFile();
+    final String classpath =
+        System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+    final List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.add("-Xmx" + maxHeapMegabytes + "m");
+    command.add("-XX:+ExitOnOutOfMemoryError");
+    command.add("-D" + PEAK_HEAP_FILE_PROPERTY + "=" + peakHeapFile.getAbsolutePath());
+    command.add("-cp");
+    command.add(classpath);
+    command.add(SchemaFromWsdlMojoScaleTest.class.getName());
+    command.addAll(Arrays.asList(args));
+    final Process process = new ProcessBuilder(command).inheritIO().start();
+    if (!process.waitFor(budget.toMillis(), TimeUnit.MILLISECONDS)) {
+      process.destroyForcibly();
+      throw new AssertionError("Extraction did not complete within its budget of " + budget);
+    }
+    assertThat(process.exitValue())
+        .as("exit value of extraction with -Xmx%dm", maxHeapMegabytes)
+        .isZero();
+    return Long.parseLong(new String(Files.readAllBytes(peakHeapFile.toPath()), UTF_8));
+  }
+
+  /**
+   * Get the heap an extraction may retain.
+   *
+   * @param heldBytes Bytes of WSDL held at once, parsed into documents or streamed.
+   * @param heapBytesPerWsdlByte Heap bytes allowed per byte of WSDL held.
+   * @return Heap bound in bytes.
+   */
+  private static long heapBound(final long heldBytes, final int heapBytesPerWsdlByte) {
+    return (HEAP_BASE_MEGABYTES * 1024 * 1024) + (heldBytes * heapBytesPerWsdlByte);
+  }
+
+  /** Test a single large WSDL is extracted within the heap and time bounds. */
+  @Test
+  @SneakyThrows
+  public void largeWsdl() {
+    final File wsdlDirectory = temporaryFolder.newFolder("largeWsdl");
+    final int complexTypes = WsdlFixtureGenerator.complexTypesForSize(LARGE_WSDL_BYTES);
+    WsdlFixtureGenerator.generate(wsdlDirectory.toPath().resolve("large.wsdl"), complexTypes);
+    final File sourceDestDir = temporaryFolder.newFolder("largeWsdlSchema");
+    final long peakHeap =
+        executeInConstrainedJvm(wsdlDirectory, sourceDestDir, MAX_HEAP_MEGABYTES, 1, 0);
+    assertThat(peakHeap)
+        .as("peak heap")
+        .isLessThanOrEqualTo(heapBound(LARGE_WSDL_BYTES, DOCUMENT_HEAP_PER_WSDL_BYTE));
+    final Path schema = sourceDestDir.toPath().resolve("large.xsd");
+    assertThat(Files.size(schema)).isGreaterThan(LARGE_WSDL_BYTES / 2);
+  }
+
+  /** Test the embedded schema of a large WSDL is complete when parsed directly. */
+  @Test
+  @SneakyThrows
+  public void largeWsdlUtilities() {
+    final int complexTypes = WsdlFixtureGenerator.complexTypesForSize(LARGE_WSDL_BYTES);
+    final Path wsdl =
+        WsdlFixtureGenerator.generate(temporaryFolder.newFile("large.wsdl").toPath(), complexTypes);
+    final File schemaFile = temporaryFolder.newFile("large.xsd");
+    final long peakHeap =
+        executeInConstrainedJvm(
+            budget(wsdl),
+            MAX_HEAP_MEGABYTES,
+            "utilities",
+            wsdl.toString(),
+            schemaFile.getAbsolutePath());
+    assertThat(peakHeap)
+        .as("peak heap")
+        .isLessThanOrEqualTo(heapBound(LARGE_WSDL_BYTES, DOCUMENT_HEAP_PER_WSDL_BYTE));
+    final String schema = new String(Files.readAllBytes(schemaFile.toPath()), UTF_8);
+    assertThat(schema)
+        .contains("name=\"Type0\"")
+        .contains("name=\"Type" + (complexTypes - 1) + "\"");
+  }
+
+  /** Test many WSDLs in a single execution are extracted within the heap and time bounds. */
+  @Test
+  @SneakyThrows
+  public void manyWsdls() {
+    final File wsdlDirectory = temporaryFolder.newFolder("manyWsdls");
+    for (int i = 0; i < WSDL_COUNT; i++) {
+      WsdlFixtureGenerator.generate(
+          wsdlDirectory.toPath().resolve("service" + i + ".wsdl"), COMPLEX_TYPES_PER_WSDL);
+    }
+    final File sourceDestDir = temporaryFolder.newFolder("manyWsdlsSchema");
+    final long peakHeap =
+        executeInConstrainedJvm(wsdlDirectory, sourceDestDir, MAX_HEAP_MEGABYTES, 1, 0);
+    assertThat(sourceDestDir.list()).hasSize(WSDL_COUNT);
+    // WSDLs are extracted one at a time, so only one document is held at once.
+    assertThat(peakHeap)
+        .as("peak heap")
+        .isLessThanOrEqualTo(
+            heapBound(
+                Files.size(wsdlDirectory.toPath().resolve("service0.wsdl")),
+                DOCUMENT_HEAP_PER_WSDL_BYTE));
+  }
+
+  /** Test many WSDLs parsed concurrently stay within the heap bound under a memory budget. */
+  @Test
+  @SneakyThrows
+  public void manyWsdlsConcurrent() {
+    final File wsdlDirectory = temporaryFolder.newFolder("manyWsdlsConcurrent");
+    WsdlFixtureGenerator.generate(
+        wsdlDirectory.toPath().resolve("large.wsdl"),
+        WsdlFixtureGenerator.complexTypesForSize(LARGE_WSDL_BYTES));
+    for (int i = 0; i < WSDL_COUNT; i++) {
+      WsdlFixtureGenerator.generate(
+          wsdlDirectory.toPath().resolve("service" + i + ".wsdl"), COMPLEX_TYPES_PER_WSDL);
+    }
+    final File sourceDestDir = temporaryFolder.newFolder("manyWsdlsConcurrentSchema");
+    final int memoryBudgetMegabytes = MAX_HEAP_MEGABYTES / 2;
+    final long peakHeap =
+        executeInConstrainedJvm(
+            wsdlDirectory, sourceDestDir, MAX_HEAP_MEGABYTES, 8, memoryBudgetMegabytes);
+    assertThat(sourceDestDir.list()).hasSize(WSDL_COUNT + 1);
+    // The budget only admits as many WSDL bytes as its estimated documents fit within it.
+    final long admittedBytes =
+        memoryBudgetMegabytes * 1024L * 1024 / SchemaFromWsdlMojo.DOCUMENT_BYTES_PER_WSDL_BYTE;
+    assertThat(peakHeap)
+        .as("peak heap")
+        .isLessThanOrEqualTo(heapBound(admittedBytes, DOCUMENT_HEAP_PER_WSDL_BYTE));
+  }
+
+  /** Test a WSDL exceeding the memory budget is streamed within a heap too small for a document. */
+  @Test
+  @SneakyThrows
+  public void largeWsdlStreaming() {
+    final File wsdlDirectory = temporaryFolder.newFolder("largeWsdlStreaming");
+    final int complexTypes = WsdlFixtureGenerator.complexTypesForSize(LARGE_WSDL_BYTES);
+    WsdlFixtureGenerator.generate(wsdlDirectory.toPath().resolve("large.wsdl"), complexTypes);
+    final File sourceDestDir = temporaryFolder.newFolder("largeWsdlStreamingSchema");
+    final int maxHeapMegabytes = MAX_HEAP_MEGABYTES / 4;
+    final long peakHeap =
+        executeInConstrainedJvm(
+            wsdlDirectory, sourceDestDir, maxHeapMegabytes, 1, maxHeapMegabytes / 2);
+    assertThat(peakHeap)
+        .as("peak heap")
+        .isLessThanOrEqualTo(heapBound(LARGE_WSDL_BYTES, STREAMING_HEAP_PER_WSDL_BYTE));
+    assertThat(sourceDestDir.toPath().resolve("large.xsd").toFile().length())
+        .isGreaterThan(LARGE_WSDL_BYTES / 2);
+  }
+}
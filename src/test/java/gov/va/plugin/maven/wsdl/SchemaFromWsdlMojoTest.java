@@ -1,19 +1,33 @@
 package gov.va.plugin.maven.wsdl;
 
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
+import java.util.stream.IntStream;
 import lombok.SneakyThrows;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
@@ -64,6 +78,18 @@ public class SchemaFromWsdlMojoTest {
   private static final Path INVALID_WSDL_RESOURCES_PATH =
       TEST_WSDL_RESOURCES_PATH.resolve("invalid");
 
+  /** Path containing wsdl that embed identical schemas. */
+  private static final Path DUPLICATE_WSDL_RESOURCES_PATH =
+      TEST_WSDL_RESOURCES_PATH.resolve("duplicate");
+
+  /** Path containing wsdl exercising namespace and content serialization when streamed. */
+  private static final Path STREAMING_WSDL_RESOURCES_PATH =
+      TEST_WSDL_RESOURCES_PATH.resolve("streaming");
+
+  /** Path containing wsdl exercising the operations index. */
+  private static final Path OPERATIONS_WSDL_RESOURCES_PATH =
+      TEST_WSDL_RESOURCES_PATH.resolve("operations");
+
   /** Path for the expected schema to be extracted from the valid schema. */
   private static final Path EXPECTED_SCHEMA_RESOURCE_PATH =
       TEST_RESOURCES.resolve("xsd").resolve(VALID_SCHEMA_NAME);
@@ -135,6 +161,240 @@ public class SchemaFromWsdlMojoTest {
     return jarDestFile;
   }
 
+  /** Test every wsdl is processed and all failures are reported together when not failing fast. */
+  @Test
+  @SneakyThrows
+  public void collectAllFailures() {
+    final File sourceDestDir = temporaryFolder.newFolder("collectAllFailures");
+    final File errorReportFile = sourceDestDir.toPath().resolve("errors.json").toFile();
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlFiles(
+        List.of(
+            INVALID_WSDL_RESOURCES_PATH.resolve(INVALID_WSDL_NAME).toString(),
+            VALID_WSDL_RESOURCES_PATH.resolve(VALID_WSDL_NAME).toString(),
+            INVALID_WSDL_RESOURCES_PATH.resolve(WSDL_NO_SCHEMA_NAME).toString(),
+            INVALID_WSDL_RESOURCES_PATH.resolve("missing.wsdl").toString(),
+            INVALID_WSDL_RESOURCES_PATH.resolve(WSDL_MULTIPLE_SCHEMA_NAME).toString()));
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.failFast(false);
+    schemaFromWsdlMojo.threads(2);
+    schemaFromWsdlMojo.errorReportFile(errorReportFile);
+    assertThatThrownBy(schemaFromWsdlMojo::execute)
+        .isInstanceOf(MojoExecutionException.class)
+        .hasMessageStartingWith("4 of 5 WSDL(s) failed");
+    assertThat(sourceDestDir.toPath().resolve(VALID_SCHEMA_NAME)).exists();
+    final String report = new String(Files.readAllBytes(errorReportFile.toPath()));
+    assertThat(report)
+        .contains("\"failureCount\": 4")
+        .contains(INVALID_WSDL_NAME + "\", \"line\": 51, \"column\": 4")
+        .contains(WSDL_NO_SCHEMA_NAME)
+        .contains("missing.wsdl\", \"line\": -1, \"column\": -1")
+        .contains("WSDL does not exist")
+        .contains(WSDL_MULTIPLE_SCHEMA_NAME);
+  }
+
+  /** Test a wsdl resource missing from the dependency is reported when not failing fast. */
+  @Test
+  @SneakyThrows
+  public void collectUnresolvedWsdlResource() {
+    final File jarDestDir = temporaryFolder.newFolder("jar");
+    final MavenProject project = buildMockMavenProject(buildTemporaryDependencyJar(jarDestDir));
+    final File sourceDestDir = temporaryFolder.newFolder("collectUnresolvedWsdlResource");
+    final File errorReportFile = sourceDestDir.toPath().resolve("errors.json").toFile();
+    final File manifestFile = sourceDestDir.toPath().resolve("manifest.json").toFile();
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.project(project);
+    schemaFromWsdlMojo.wsdlDependency(WSDL_DEPENDENCY);
+    schemaFromWsdlMojo.wsdlFiles(List.of("missing.wsdl", VALID_WSDL_NAME));
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.failFast(false);
+    schemaFromWsdlMojo.errorReportFile(errorReportFile);
+    schemaFromWsdlMojo.manifestFile(manifestFile);
+    assertThatThrownBy(schemaFromWsdlMojo::execute)
+        .isInstanceOf(MojoExecutionException.class)
+        .hasMessageStartingWith("1 of 2 WSDL(s) failed");
+    assertThat(sourceDestDir.toPath().resolve(VALID_SCHEMA_NAME)).exists();
+    assertThat(new String(Files.readAllBytes(errorReportFile.toPath())))
+        .contains("{\"wsdl\": \"missing.wsdl\"");
+    assertThat(new String(Files.readAllBytes(manifestFile.toPath())))
+        .contains("\"entry\": \"" + VALID_WSDL_NAME + "\"");
+  }
+
+  /** Test identical schemas are written once and a duplicate is linked to the shared file. */
+  @Test
+  @SneakyThrows
+  public void deduplicateSchemasLink() {
+    final File sourceDestDir = temporaryFolder.newFolder("deduplicateSchemasLink");
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(DUPLICATE_WSDL_RESOURCES_PATH.toFile());
+    schemaFromWsdlMojo.wsdlFiles(List.of("first.wsdl", "second.wsdl"));
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.deduplicateSchemas(true);
+    schemaFromWsdlMojo.deduplicationMode(SchemaFromWsdlMojo.DeduplicationMode.LINK);
+    schemaFromWsdlMojo.execute();
+    assertThat(Files.isRegularFile(sourceDestDir.toPath().resolve("first.xsd"), NOFOLLOW_LINKS))
+        .isTrue();
+    final String actual =
+        new String(Files.readAllBytes(sourceDestDir.toPath().resolve("second.xsd")));
+    assertThat(actual).isEqualToIgnoringWhitespace(expected);
+  }
+
+  /**
+   * Test wsdls found in a directory are processed in name order, so the first name holds the
+   * content shared by identical schemas whatever the order of the directory listing.
+   */
+  @Test
+  @SneakyThrows
+  public void deduplicateSchemasDirectoryInNameOrder() {
+    final File wsdlDirectory = temporaryFolder.newFolder("deduplicateSchemasDirectoryWsdl");
+    final List<String> names = List.of("m", "z", "c", "a", "x", "k", "b", "q");
+    for (String name : names) {
+      Files.copy(
+          DUPLICATE_WSDL_RESOURCES_PATH.resolve("first.wsdl"),
+          wsdlDirectory.toPath().resolve(name + ".wsdl"));
+    }
+    final File sourceDestDir = temporaryFolder.newFolder("deduplicateSchemasDirectoryInNameOrder");
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(wsdlDirectory);
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.deduplicateSchemas(true);
+    schemaFromWsdlMojo.execute();
+    assertThat(sourceDestDir.list()).containsExactlyInAnyOrder("a.xsd", "schema-dedup.properties");
+    final Properties manifest = new Properties();
+    try (Reader reader =
+        Files.newBufferedReader(sourceDestDir.toPath().resolve("schema-dedup.properties"))) {
+      manifest.load(reader);
+    }
+    assertThat(manifest).hasSize(names.size()).containsEntry("z.wsdl", "a.xsd");
+  }
+
+  /**
+   * Test a copy of a shared schema is left untouched where a link can not be created. A directory
+   * in the way of the link makes creating it fail as it would where links are not supported.
+   */
+  @Test
+  @SneakyThrows
+  public void deduplicateSchemasLinkUnsupportedKeepsCopy() {
+    final File sourceDestDir = temporaryFolder.newFolder("deduplicateSchemasLinkUnsupported");
+    final File manifestFile = temporaryFolder.getRoot().toPath().resolve("copies.json").toFile();
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(DUPLICATE_WSDL_RESOURCES_PATH.toFile());
+    schemaFromWsdlMojo.wsdlFiles(List.of("first.wsdl", "second.wsdl"));
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.manifestFile(manifestFile);
+    schemaFromWsdlMojo.execute();
+    final Path copy = sourceDestDir.toPath().resolve("second.xsd");
+    final FileTime copied = FileTime.fromMillis(0);
+    Files.setLastModifiedTime(copy, copied);
+    Files.createDirectories(sourceDestDir.toPath().resolve("second.xsd.link/blocked"));
+    schemaFromWsdlMojo.deduplicateSchemas(true);
+    schemaFromWsdlMojo.deduplicationMode(SchemaFromWsdlMojo.DeduplicationMode.LINK);
+    schemaFromWsdlMojo.execute();
+    assertThat(Files.isRegularFile(copy, NOFOLLOW_LINKS)).isTrue();
+    assertThat(Files.getLastModifiedTime(copy)).isEqualTo(copied);
+    assertThat(new String(Files.readAllBytes(manifestFile.toPath())))
+        .contains("\"schema\": \"second.xsd\"")
+        .doesNotContain("\"changed\": true");
+  }
+
+  /**
+   * Test a link left by an earlier execution is replaced rather than followed when the wsdls are
+   * processed in the reverse order, so neither schema is lost.
+   */
+  @Test
+  @SneakyThrows
+  public void deduplicateSchemasLinkReordered() {
+    final File sourceDestDir = temporaryFolder.newFolder("deduplicateSchemasLinkReordered");
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(DUPLICATE_WSDL_RESOURCES_PATH.toFile());
+    schemaFromWsdlMojo.wsdlFiles(List.of("first.wsdl", "second.wsdl"));
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.deduplicateSchemas(true);
+    schemaFromWsdlMojo.deduplicationMode(SchemaFromWsdlMojo.DeduplicationMode.LINK);
+    schemaFromWsdlMojo.execute();
+    schemaFromWsdlMojo.wsdlFiles(List.of("second.wsdl", "first.wsdl"));
+    schemaFromWsdlMojo.execute();
+    assertThat(Files.isRegularFile(sourceDestDir.toPath().resolve("second.xsd"), NOFOLLOW_LINKS))
+        .isTrue();
+    for (String schema : List.of("first.xsd", "second.xsd")) {
+      final String actual = new String(Files.readAllBytes(sourceDestDir.toPath().resolve(schema)));
+      assertThat(actual).isEqualToIgnoringWhitespace(expected);
+    }
+  }
+
+  /**
+   * Test identical schemas are written once and recorded in the manifest, a duplicate schema left
+   * by an execution without deduplication is removed and an unchanged manifest is not rewritten.
+   */
+  @Test
+  @SneakyThrows
+  public void deduplicateSchemasManifest() {
+    final File sourceDestDir = temporaryFolder.newFolder("deduplicateSchemasManifest");
+    Files.write(sourceDestDir.toPath().resolve("second.xsd"), expected.getBytes());
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(DUPLICATE_WSDL_RESOURCES_PATH.toFile());
+    schemaFromWsdlMojo.wsdlFiles(List.of("first.wsdl", "second.wsdl"));
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.deduplicateSchemas(true);
+    schemaFromWsdlMojo.execute();
+    assertThat(sourceDestDir.toPath().resolve("first.xsd")).exists();
+    assertThat(sourceDestDir.toPath().resolve("second.xsd")).doesNotExist();
+    final Properties manifest = new Properties();
+    try (Reader reader =
+        Files.newBufferedReader(sourceDestDir.toPath().resolve("schema-dedup.properties"))) {
+      manifest.load(reader);
+    }
+    assertThat(manifest)
+        .containsEntry("first.wsdl", "first.xsd")
+        .containsEntry("second.wsdl", "first.xsd");
+    final File manifestFile = sourceDestDir.toPath().resolve("schema-dedup.properties").toFile();
+    assertThat(manifestFile.setLastModified(0)).isTrue();
+    schemaFromWsdlMojo.execute();
+    assertThat(manifestFile.lastModified()).isZero();
+  }
+
+  /**
+   * Test a schema that failed to be written is not shared with a later identical schema, which is
+   * then written to its own file and recorded in the manifests.
+   */
+  @Test
+  @SneakyThrows
+  public void deduplicateSchemasAfterFailedWrite() {
+    final File sourceDestDir = temporaryFolder.newFolder("deduplicateSchemasAfterFailedWrite");
+    // A directory in place of the first schema file fails its write.
+    assertThat(sourceDestDir.toPath().resolve("first.xsd").toFile().mkdir()).isTrue();
+    final File manifestFile = sourceDestDir.toPath().resolve("manifest.json").toFile();
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(DUPLICATE_WSDL_RESOURCES_PATH.toFile());
+    schemaFromWsdlMojo.wsdlFiles(List.of("first.wsdl", "second.wsdl"));
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.deduplicateSchemas(true);
+    schemaFromWsdlMojo.failFast(false);
+    schemaFromWsdlMojo.errorReportFile(null);
+    schemaFromWsdlMojo.manifestFile(manifestFile);
+    assertThatThrownBy(schemaFromWsdlMojo::execute)
+        .isInstanceOf(MojoExecutionException.class)
+        .hasMessageStartingWith("1 of 2 WSDL(s) failed");
+    assertThat(sourceDestDir.toPath().resolve("second.xsd")).exists();
+    final Properties manifest = new Properties();
+    try (Reader reader =
+        Files.newBufferedReader(sourceDestDir.toPath().resolve("schema-dedup.properties"))) {
+      manifest.load(reader);
+    }
+    assertThat(manifest).hasSize(1).containsEntry("second.wsdl", "second.xsd");
+    assertThat(new String(Files.readAllBytes(manifestFile.toPath())))
+        .contains("\"schema\": \"second.xsd\"")
+        .doesNotContain("\"schema\": \"first.xsd\"");
+  }
+
   /** Test the plugin correctly fails when wsdl directory does not exist. */
   @Test(expected = MojoExecutionException.class)
   @SneakyThrows
@@ -193,6 +453,203 @@ public class SchemaFromWsdlMojoTest {
     assertThat(actual).isEqualToIgnoringWhitespace(expected);
   }
 
+  /** Test schemas are extracted correctly when wsdl are parsed concurrently within a budget. */
+  @Test
+  @SneakyThrows
+  public void extractWsdlFilesConcurrently() {
+    final File sourceDestDir = temporaryFolder.newFolder("extractWsdlFilesConcurrently");
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlFiles(
+        List.of(
+            VALID_WSDL_RESOURCES_PATH.resolve(VALID_WSDL_NAME).toString(),
+            DUPLICATE_WSDL_RESOURCES_PATH.resolve("first.wsdl").toString(),
+            DUPLICATE_WSDL_RESOURCES_PATH.resolve("second.wsdl").toString()));
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.threads(3);
+    schemaFromWsdlMojo.memoryBudgetMegabytes(1);
+    schemaFromWsdlMojo.execute();
+    for (String schema : List.of(VALID_SCHEMA_NAME, "first.xsd", "second.xsd")) {
+      final String actual = new String(Files.readAllBytes(sourceDestDir.toPath().resolve(schema)));
+      assertThat(actual).isEqualToIgnoringWhitespace(expected);
+    }
+  }
+
+  /**
+   * Test parsed schemas are held only while they fit the memory budget. The first wsdl is slow to
+   * parse while the others are parsed and written.
+   */
+  @Test
+  @SneakyThrows
+  public void concurrentResultsWithinMemoryBudget() {
+    final File wsdlDirectory = temporaryFolder.newFolder("concurrentResultsWsdl");
+    final int wsdlCount = 8;
+    for (int i = 0; i < wsdlCount; i++) {
+      WsdlFixtureGenerator.generate(
+          wsdlDirectory.toPath().resolve("service" + i + ".wsdl"),
+          WsdlFixtureGenerator.complexTypesForSize(150 * 1024));
+    }
+    final File sourceDestDir = temporaryFolder.newFolder("concurrentResultsWithinMemoryBudget");
+    final AtomicInteger started = new AtomicInteger();
+    final AtomicInteger maxUnwritten = new AtomicInteger();
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(wsdlDirectory);
+    schemaFromWsdlMojo.wsdlFiles(
+        IntStream.range(0, wsdlCount).mapToObj(i -> "service" + i + ".wsdl").collect(toList()));
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(
+        new SimpleEmbeddedSchemaFromWsdlProvider() {
+          @Override
+          @SneakyThrows
+          public String getSchema(URL url) throws MojoExecutionException {
+            final int unwritten = started.incrementAndGet() - sourceDestDir.list().length;
+            maxUnwritten.accumulateAndGet(unwritten, Math::max);
+            if (url.getPath().endsWith("service0.wsdl")) {
+              Thread.sleep(500);
+            }
+            return super.getSchema(url);
+          }
+        });
+    schemaFromWsdlMojo.threads(4);
+    // Each wsdl is estimated at about 1.5 MB, so only two fit.
+    schemaFromWsdlMojo.memoryBudgetMegabytes(4);
+    schemaFromWsdlMojo.execute();
+    assertThat(sourceDestDir.list()).hasSize(wsdlCount);
+    assertThat(maxUnwritten.get()).isLessThanOrEqualTo(2);
+  }
+
+  /**
+   * Test concurrent wsdls are parsed largest first and written as they complete, while the manifest
+   * and operations index still list them in wsdl order. The first wsdl is the smallest and, while
+   * it is parsed, waits for the others to be written.
+   */
+  @Test
+  @SneakyThrows
+  public void concurrentLargestFirstWrittenAsCompleted() {
+    final File wsdlDirectory = temporaryFolder.newFolder("largestFirstWsdl");
+    final List<String> wsdls = List.of("service0.wsdl", "service1.wsdl", "service2.wsdl");
+    for (int i = 0; i < wsdls.size(); i++) {
+      WsdlFixtureGenerator.generate(
+          wsdlDirectory.toPath().resolve(wsdls.get(i)),
+          WsdlFixtureGenerator.complexTypesForSize((i + 1) * 50 * 1024));
+    }
+    final File sourceDestDir = temporaryFolder.newFolder("concurrentLargestFirst");
+    final File manifestFile = temporaryFolder.getRoot().toPath().resolve("ordered.json").toFile();
+    final File operationsIndexFile =
+        temporaryFolder.getRoot().toPath().resolve("ordered-operations.json").toFile();
+    final List<String> started = new CopyOnWriteArrayList<>();
+    final AtomicInteger writtenWhileFirstParsed = new AtomicInteger();
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(wsdlDirectory);
+    schemaFromWsdlMojo.wsdlFiles(wsdls);
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.manifestFile(manifestFile);
+    schemaFromWsdlMojo.operationsIndexFile(operationsIndexFile);
+    schemaFromWsdlMojo.versionProvider(
+        new SimpleEmbeddedSchemaFromWsdlProvider() {
+          @Override
+          @SneakyThrows
+          public ExtractedWsdl getSchemaAndOperations(URL url) throws MojoExecutionException {
+            final String wsdl = new File(url.getPath()).getName();
+            started.add(wsdl);
+            if (wsdl.equals(wsdls.get(0))) {
+              final long deadline = System.currentTimeMillis() + 5000;
+              while ((sourceDestDir.list().length < 2) && (System.currentTimeMillis() < deadline)) {
+                Thread.sleep(10);
+              }
+              writtenWhileFirstParsed.set(sourceDestDir.list().length);
+            }
+            return super.getSchemaAndOperations(url);
+          }
+        });
+    schemaFromWsdlMojo.threads(2);
+    schemaFromWsdlMojo.execute();
+    assertThat(started.subList(0, 2)).containsExactlyInAnyOrder("service2.wsdl", "service1.wsdl");
+    assertThat(started.get(2)).isEqualTo("service0.wsdl");
+    assertThat(writtenWhileFirstParsed.get()).isEqualTo(2);
+    for (File ordered : List.of(manifestFile, operationsIndexFile)) {
+      final String actual = new String(Files.readAllBytes(ordered.toPath()));
+      assertThat(actual.indexOf("service0.wsdl")).isLessThan(actual.indexOf("service1.wsdl"));
+      assertThat(actual.indexOf("service1.wsdl")).isLessThan(actual.indexOf("service2.wsdl"));
+    }
+  }
+
+  /**
+   * Test deduplicated schemas are written in wsdl order when parsed concurrently, so the first wsdl
+   * holds the shared content even when it completes last. The two larger wsdls fill the budget, so
+   * the first wsdl is admitted regardless of the budget for their results to be written.
+   */
+  @Test(timeout = 30000)
+  @SneakyThrows
+  public void concurrentDeduplicationInWsdlOrder() {
+    final File wsdlDirectory = temporaryFolder.newFolder("concurrentDeduplicationWsdl");
+    final List<String> wsdls = List.of("service0.wsdl", "service1.wsdl", "service2.wsdl");
+    for (int i = 0; i < wsdls.size(); i++) {
+      WsdlFixtureGenerator.generate(
+          wsdlDirectory.toPath().resolve(wsdls.get(i)),
+          WsdlFixtureGenerator.complexTypesForSize((i == 0) ? 20 * 1024 : 100 * 1024));
+    }
+    final File sourceDestDir = temporaryFolder.newFolder("concurrentDeduplicationInWsdlOrder");
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(wsdlDirectory);
+    schemaFromWsdlMojo.wsdlFiles(wsdls);
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(
+        new SimpleEmbeddedSchemaFromWsdlProvider() {
+          @Override
+          @SneakyThrows
+          public String getSchema(URL url) throws MojoExecutionException {
+            if (url.getPath().endsWith(wsdls.get(1))) {
+              Thread.sleep(500);
+            }
+            return super.getSchema(url);
+          }
+        });
+    schemaFromWsdlMojo.deduplicateSchemas(true);
+    schemaFromWsdlMojo.threads(3);
+    // Each larger wsdl is estimated at about 1 MB, so the first does not fit alongside them.
+    schemaFromWsdlMojo.memoryBudgetMegabytes(2);
+    schemaFromWsdlMojo.execute();
+    assertThat(sourceDestDir.list())
+        .containsExactlyInAnyOrder("service0.xsd", "service1.xsd", "schema-dedup.properties");
+    final Properties manifest = new Properties();
+    try (Reader reader =
+        Files.newBufferedReader(sourceDestDir.toPath().resolve("schema-dedup.properties"))) {
+      manifest.load(reader);
+    }
+    assertThat(manifest).containsEntry("service2.wsdl", "service1.xsd");
+  }
+
+  /** Test a streamed schema is identical to the schema extracted from a parsed document. */
+  @Test
+  @SneakyThrows
+  public void streamedSchemaMatchesParsedSchema() {
+    for (Path wsdl :
+        List.of(
+            VALID_WSDL_RESOURCES_PATH.resolve(VALID_WSDL_NAME),
+            STREAMING_WSDL_RESOURCES_PATH.resolve("namespaces.wsdl"),
+            STREAMING_WSDL_RESOURCES_PATH.resolve("entities.wsdl"))) {
+      final URL url = wsdl.toUri().toURL();
+      assertThat(WsdlUtilities.streamSchemaStringFromWsdl(url))
+          .isEqualTo(WsdlUtilities.parseSchemaStringFromWsdl(url));
+    }
+  }
+
+  /** Test a wsdl that can not be parsed fails with the same location and reason when streamed. */
+  @Test
+  @SneakyThrows
+  public void streamedWsdlInvalid() {
+    final URL url = INVALID_WSDL_RESOURCES_PATH.resolve(INVALID_WSDL_NAME).toUri().toURL();
+    final Throwable streamed = catchThrowable(() -> WsdlUtilities.streamSchemaStringFromWsdl(url));
+    assertThat(streamed).isInstanceOf(WsdlUtilities.WsdlParseFailedException.class);
+    final ExtractionFailure failure = ExtractionFailure.of(url, streamed);
+    assertThat(failure.diagnostic()).startsWith(url + ":51:4: The element type");
+    assertThat(failure)
+        .isEqualTo(
+            ExtractionFailure.of(
+                url, catchThrowable(() -> WsdlUtilities.parseSchemaStringFromWsdl(url))));
+  }
+
   /** Test nominal case of correctly extracted schema specified by file path. */
   @Test
   @SneakyThrows
@@ -219,6 +676,135 @@ public class SchemaFromWsdlMojoTest {
     schemaFromWsdlMojo.execute();
   }
 
+  /** Test the manifest describes each schema and reports changes only when content changes. */
+  @Test
+  @SneakyThrows
+  public void manifestRecordsChecksumsAndChanges() {
+    final File sourceDestDir = temporaryFolder.newFolder("manifestRecordsChecksumsAndChanges");
+    final File manifestFile = temporaryFolder.getRoot().toPath().resolve("manifest.json").toFile();
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(VALID_WSDL_RESOURCES_PATH.toFile());
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.manifestFile(manifestFile);
+    schemaFromWsdlMojo.execute();
+    final byte[] schema = Files.readAllBytes(sourceDestDir.toPath().resolve(VALID_SCHEMA_NAME));
+    assertThat(new String(Files.readAllBytes(manifestFile.toPath())))
+        .contains("\"type\": \"directory\"")
+        .contains("\"entry\": \"" + VALID_WSDL_NAME + "\"")
+        .contains("\"schema\": \"" + VALID_SCHEMA_NAME + "\"")
+        .contains("\"size\": " + schema.length)
+        .contains("\"sha256\": \"" + SchemaDeduplicator.sha256Hex(schema) + "\"")
+        .contains("\"changed\": true");
+    schemaFromWsdlMojo.execute();
+    assertThat(new String(Files.readAllBytes(manifestFile.toPath())))
+        .contains("\"changed\": false")
+        .doesNotContain("\"changed\": true");
+  }
+
+  /** Test the manifest names the directory and file of a wsdl as configured, not url encoded. */
+  @Test
+  @SneakyThrows
+  public void manifestOriginDecoded() {
+    final File wsdlDirectory = temporaryFolder.newFolder("wsdl directory");
+    Files.copy(
+        VALID_WSDL_RESOURCES_PATH.resolve(VALID_WSDL_NAME),
+        wsdlDirectory.toPath().resolve("simple service.wsdl"));
+    final File manifestFile = temporaryFolder.getRoot().toPath().resolve("decoded.json").toFile();
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlDirectory(wsdlDirectory);
+    schemaFromWsdlMojo.sourceDestDir(temporaryFolder.newFolder("manifestOriginDecoded"));
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.manifestFile(manifestFile);
+    schemaFromWsdlMojo.execute();
+    assertThat(new String(Files.readAllBytes(manifestFile.toPath())))
+        .contains(
+            "\"origin\": {\"type\": \"directory\", \"location\": "
+                + Json.quote(wsdlDirectory.getAbsolutePath())
+                + ", \"entry\": \"simple service.wsdl\"}");
+  }
+
+  /** Test the operations index is written from the same parse as the schema. */
+  @Test
+  @SneakyThrows
+  public void operationsIndex() {
+    final File sourceDestDir = temporaryFolder.newFolder("operationsIndex");
+    final File operationsIndexFile = sourceDestDir.toPath().resolve("operations.json").toFile();
+    SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+    schemaFromWsdlMojo.wsdlFiles(
+        List.of(
+            VALID_WSDL_RESOURCES_PATH.resolve(VALID_WSDL_NAME).toString(),
+            OPERATIONS_WSDL_RESOURCES_PATH.resolve("imported-message.wsdl").toString()));
+    schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+    schemaFromWsdlMojo.versionProvider(versionProvider);
+    schemaFromWsdlMojo.operationsIndexFile(operationsIndexFile);
+    schemaFromWsdlMojo.execute();
+    final String actual =
+        new String(Files.readAllBytes(sourceDestDir.toPath().resolve(VALID_SCHEMA_NAME)));
+    assertThat(actual).isEqualToIgnoringWhitespace(expected);
+    assertThat(new String(Files.readAllBytes(operationsIndexFile.toPath())))
+        .contains("\"services\": [{\"name\": \"{http://ttdev.com/ss}SimpleService\"")
+        .contains("\"portType\": \"{http://ttdev.com/ss}SimpleService\"")
+        .contains(
+            "{\"name\": \"concat\", \"input\": [\"{http://ttdev.com/ss}concatRequest\"], "
+                + "\"output\": [\"{http://ttdev.com/ss}concatResponse\"]}")
+        // A message defined by an imported wsdl is not resolved.
+        .contains(
+            "{\"name\": \"lookup\", \"input\": null, "
+                + "\"output\": [\"{urn:example:service}lookupResponse\"]}");
+  }
+
+  /**
+   * Test wsdls streamed because they exceed the memory budget yield the same schemas and operations
+   * index as when they are parsed into documents.
+   */
+  @Test
+  @SneakyThrows
+  public void operationsIndexStreamed() {
+    final File wsdlDirectory = temporaryFolder.newFolder("operationsIndexStreamedWsdl");
+    // A leading comment takes the wsdl past the streaming threshold of a 1 MB budget.
+    final byte[] valid = Files.readAllBytes(VALID_WSDL_RESOURCES_PATH.resolve(VALID_WSDL_NAME));
+    final Path wsdl = wsdlDirectory.toPath().resolve("padded.wsdl");
+    try (OutputStream padded = Files.newOutputStream(wsdl)) {
+      padded.write(("<!--" + " ".repeat(200 * 1024) + "-->\n").getBytes(StandardCharsets.UTF_8));
+      padded.write(valid);
+    }
+    WsdlFixtureGenerator.generate(
+        wsdlDirectory.toPath().resolve("generated.wsdl"),
+        WsdlFixtureGenerator.complexTypesForSize(200 * 1024));
+    final File parsed = temporaryFolder.newFolder("operationsIndexParsed");
+    final File streamed = temporaryFolder.newFolder("operationsIndexStreamed");
+    final AtomicInteger streamedCount = new AtomicInteger();
+    for (File sourceDestDir : List.of(parsed, streamed)) {
+      SchemaFromWsdlMojo schemaFromWsdlMojo = new SchemaFromWsdlMojo();
+      schemaFromWsdlMojo.wsdlDirectory(wsdlDirectory);
+      schemaFromWsdlMojo.sourceDestDir(sourceDestDir);
+      schemaFromWsdlMojo.operationsIndexFile(
+          sourceDestDir.toPath().resolve("operations.json").toFile());
+      schemaFromWsdlMojo.versionProvider(
+          new SimpleEmbeddedSchemaFromWsdlProvider() {
+            @Override
+            public ExtractedWsdl getSchemaAndOperationsStreaming(URL url)
+                throws MojoExecutionException {
+              streamedCount.incrementAndGet();
+              return super.getSchemaAndOperationsStreaming(url);
+            }
+          });
+      if (sourceDestDir == streamed) {
+        schemaFromWsdlMojo.memoryBudgetMegabytes(1);
+      }
+      schemaFromWsdlMojo.execute();
+    }
+    assertThat(streamedCount.get()).isEqualTo(2);
+    for (String file : List.of("padded.xsd", "generated.xsd", "operations.json")) {
+      assertThat(new String(Files.readAllBytes(streamed.toPath().resolve(file))))
+          .isEqualTo(new String(Files.readAllBytes(parsed.toPath().resolve(file))));
+    }
+    assertThat(new String(Files.readAllBytes(streamed.toPath().resolve("operations.json"))))
+        .contains("\"services\": [{\"name\": \"{http://ttdev.com/ss}SimpleService\"")
+        .contains("{\"name\": \"scale\", \"input\": [");
+  }
+
   /** Test the plugin fails when a schema is not found. */
   @Test(expected = MojoExecutionException.class)
   @SneakyThrows
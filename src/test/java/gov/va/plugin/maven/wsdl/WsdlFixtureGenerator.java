@@ -0,0 +1,82 @@
+package gov.va.plugin.maven.wsdl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates synthetic WSDL fixtures of arbitrary size for scale testing.
+ *
+ * <p>Each generated WSDL embeds a single schema containing the requested number of complex types,
+ * each with a matching element, plus one operation so the document resembles a real service.
+ */
+final class WsdlFixtureGenerator {
+
+  /** Approximate number of bytes written per complex type. */
+  static final int BYTES_PER_COMPLEX_TYPE = 500;
+
+  private static final String TARGET_NAMESPACE = "http://gov.va/plugin/maven/wsdl/scale";
+
+  private WsdlFixtureGenerator() {}
+
+  /**
+   * Get the number of complex types needed to generate a WSDL of approximately the given size.
+   *
+   * @param bytes Desired WSDL size in bytes.
+   * @return Number of complex types.
+   */
+  static int complexTypesForSize(final long bytes) {
+    return (int) Math.max(1, bytes / BYTES_PER_COMPLEX_TYPE);
+  }
+
+  /**
+   * Write a WSDL embedding a schema with the given number of complex types.
+   *
+   * @param wsdl Destination file.
+   * @param complexTypes Number of complex types in the embedded schema.
+   * @return The destination file.
+   * @throws IOException Exception if the fixture could not be written.
+   */
+  static Path generate(final Path wsdl, final int complexTypes) throws IOException {
+    try (Writer w = Files.newBufferedWriter(wsdl, StandardCharsets.UTF_8)) {
+      w.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      w.write("<wsdl:definitions xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\"");
+      w.write(" xmlns:soap=\"http://schemas.xmlsoap.org/wsdl/soap/\"");
+      w.write(" xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\"");
+      w.write(" xmlns:tns=\"" + TARGET_NAMESPACE + "\"");
+      w.write(" name=\"ScaleService\" targetNamespace=\"" + TARGET_NAMESPACE + "\">\n");
+      w.write(" <wsdl:types>\n");
+      w.write("  <xsd:schema targetNamespace=\"" + TARGET_NAMESPACE + "\">\n");
+      for (int i = 0; i < complexTypes; i++) {
+        writeComplexType(w, i);
+      }
+      w.write("  </xsd:schema>\n");
+      w.write(" </wsdl:types>\n");
+      w.write(" <wsdl:message name=\"scaleRequest\">\n");
+      w.write("  <wsdl:part name=\"parameters\" element=\"tns:element0\"/>\n");
+      w.write(" </wsdl:message>\n");
+      w.write(" <wsdl:portType name=\"ScaleService\">\n");
+      w.write("  <wsdl:operation name=\"scale\">\n");
+      w.write("   <wsdl:input message=\"tns:scaleRequest\"/>\n");
+      w.write("  </wsdl:operation>\n");
+      w.write(" </wsdl:portType>\n");
+      w.write("</wsdl:definitions>\n");
+    }
+    return wsdl;
+  }
+
+  private static void writeComplexType(final Writer w, final int index) throws IOException {
+    w.write("   <xsd:complexType name=\"Type" + index + "\">\n");
+    w.write("    <xsd:sequence>\n");
+    w.write("     <xsd:element name=\"identifier\" type=\"xsd:string\"/>\n");
+    w.write("     <xsd:element name=\"description\" type=\"xsd:string\" minOccurs=\"0\"/>\n");
+    w.write("     <xsd:element name=\"effectiveDate\" type=\"xsd:dateTime\" minOccurs=\"0\"/>\n");
+    w.write("     <xsd:element name=\"quantity\" type=\"xsd:int\" maxOccurs=\"unbounded\"/>\n");
+    w.write("    </xsd:sequence>\n");
+    w.write("    <xsd:attribute name=\"version\" type=\"xsd:string\"/>\n");
+    w.write("   </xsd:complexType>\n");
+    w.write("   <xsd:element name=\"element" + index + "\" type=\"tns:Type" + index + "\"/>\n");
+  }
+}